@@ -0,0 +1,47 @@
+package com.mytodolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+@ConfigurationProperties(prefix = "accounts")
+@Validated
+@Component
+public class AccountConfig {
+
+    @Min(value = 1, message = "Deletion batch size must be positive")
+    private int deletionBatchSize = 500; // rows removed per transaction
+
+    @Min(value = 1, message = "Deletion batches per run must be positive")
+    private int deletionMaxBatchesPerRun = 200;
+
+    @Min(value = 1, message = "Deletion accounts per run must be positive")
+    private int deletionMaxAccountsPerRun = 10;
+
+    public int getDeletionBatchSize() {
+        return deletionBatchSize;
+    }
+
+    public void setDeletionBatchSize(int deletionBatchSize) {
+        this.deletionBatchSize = deletionBatchSize;
+    }
+
+    public int getDeletionMaxBatchesPerRun() {
+        return deletionMaxBatchesPerRun;
+    }
+
+    public void setDeletionMaxBatchesPerRun(int deletionMaxBatchesPerRun) {
+        this.deletionMaxBatchesPerRun = deletionMaxBatchesPerRun;
+    }
+
+    public int getDeletionMaxAccountsPerRun() {
+        return deletionMaxAccountsPerRun;
+    }
+
+    public void setDeletionMaxAccountsPerRun(int deletionMaxAccountsPerRun) {
+        this.deletionMaxAccountsPerRun = deletionMaxAccountsPerRun;
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.mytodolist.config;
+
+import java.time.Duration;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mytodolist.security.config.JwtConfig;
+import com.mytodolist.services.EntryPageResponseCache.EncodedPage;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ENCODED_ENTRY_PAGES = "encodedEntryPages"; // first default-sized page per user id, as JSON and gzip bytes
+    public static final String IDEMPOTENT_CREATES = "idempotentCreates"; // "userId:Idempotency-Key" -> first response
+    public static final String DISABLED_ACCOUNTS = "disabledAccounts"; // user id -> TRUE while tokens issued before may still be live
+
+    private static final int ROW_OVERHEAD = 64;
+
+    /*
+     * Puts and evictions are deferred until the surrounding transaction commits. That alone does not stop
+     * a reader that raced a write from caching a page older than the write, so entry pages are tagged with
+     * the list version they were read at and checked against it instead of relying on eviction. Statistics
+     * are recorded so that the actuator publishes cache.gets (hit/miss), cache.puts and cache.evictions.
+     */
+    @Bean
+    public CacheManager cacheManager(EntryConfig entryConfig, JwtConfig jwtConfig) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ENCODED_ENTRY_PAGES, Caffeine.newBuilder()
+                .maximumWeight(entryConfig.getPageCacheMaxWeight())
+                .weigher((Object userId, Object page) -> ROW_OVERHEAD + ((EncodedPage) page).size())
+                .expireAfterAccess(Duration.ofMinutes(entryConfig.getPageCacheExpireMinutes()))
+                .recordStats()
+                .build());
+        // written, never refreshed: a key is only honoured for a fixed time after the first request
+        cacheManager.registerCustomCache(IDEMPOTENT_CREATES, Caffeine.newBuilder()
+                .maximumSize(entryConfig.getIdempotencyMaxKeys())
+                .expireAfterWrite(Duration.ofMinutes(entryConfig.getIdempotencyKeyExpireMinutes()))
+                .recordStats()
+                .build());
+        // once every access token issued before the deletion request has expired, the entry is no longer needed
+        cacheManager.registerCustomCache(DISABLED_ACCOUNTS, Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtConfig.getExpiration()))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+}
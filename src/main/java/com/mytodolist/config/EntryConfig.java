@@ -0,0 +1,245 @@
+package com.mytodolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+@ConfigurationProperties(prefix = "entries")
+@Validated
+@Component
+public class EntryConfig {
+
+    @Min(value = 1, message = "Page size must be positive")
+    private int pageSize = 50;
+
+    @Min(value = 1, message = "Max page size must be positive")
+    private int maxPageSize = 200;
+
+    @Min(value = 1, message = "Max entries per user must be positive")
+    private int maxEntriesPerUser = 10000;
+
+    @Min(value = 1, message = "Max batch ids must be positive")
+    private int maxBatchIds = 100;
+
+    @Min(value = 1, message = "Max batch create must be positive")
+    private int maxBatchCreate = 500;
+
+    @Min(value = 1, message = "Page cache weight must be positive")
+    private long pageCacheMaxWeight = 32_000_000; // roughly bytes held across all cached pages
+
+    @Min(value = 1, message = "Page cache expiry must be positive")
+    private long pageCacheExpireMinutes = 10;
+
+    @Min(value = 1, message = "Idempotency key capacity must be positive")
+    private long idempotencyMaxKeys = 100_000;
+
+    @Min(value = 1, message = "Idempotency key expiry must be positive")
+    private long idempotencyKeyExpireMinutes = 24 * 60;
+
+    @Min(value = 1, message = "Purge retention must be positive")
+    private int purgeRetentionDays = 30; // how long a deleted entry can still be restored
+
+    @Min(value = 1, message = "Purge batch size must be positive")
+    private int purgeBatchSize = 500;
+
+    @Min(value = 1, message = "Purge batches per run must be positive")
+    private int purgeMaxBatchesPerRun = 20;
+
+    @Min(value = 1, message = "Import writer threads must be positive")
+    private int importWriterThreads = 4; // imports committing at the same time, one chunk each
+
+    @Min(value = 0, message = "Import max errors must not be negative")
+    private int importMaxErrors = 100; // row errors listed in an import result; the rest are only counted
+
+    @Min(value = 8, message = "Position rebalance length must be at least 8")
+    private int positionRebalanceLength = 24; // a move producing a longer key queues the user for a rebalance
+
+    @Min(value = 1, message = "Position rebalance users per run must be positive")
+    private int positionRebalanceMaxUsersPerRun = 20;
+
+    // write-behind: single creates are queued and committed in groups by one flusher thread
+    private boolean writeBehindEnabled = false;
+
+    @Min(value = 1, message = "Write-behind queue capacity must be positive")
+    private int writeBehindQueueCapacity = 10000;
+
+    @Min(value = 1, message = "Write-behind group size must be positive")
+    private int writeBehindMaxGroupSize = 200;
+
+    @Min(value = 0, message = "Write-behind delay must not be negative")
+    private long writeBehindMaxDelayMillis = 5;
+
+    @Min(value = 0, message = "Write-behind enqueue timeout must not be negative")
+    private long writeBehindEnqueueTimeoutMillis = 100; // how long a request waits for room before getting a 503
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int getMaxEntriesPerUser() {
+        return maxEntriesPerUser;
+    }
+
+    public void setMaxEntriesPerUser(int maxEntriesPerUser) {
+        this.maxEntriesPerUser = maxEntriesPerUser;
+    }
+
+    public int getMaxBatchIds() {
+        return maxBatchIds;
+    }
+
+    public void setMaxBatchIds(int maxBatchIds) {
+        this.maxBatchIds = maxBatchIds;
+    }
+
+    public int getMaxBatchCreate() {
+        return maxBatchCreate;
+    }
+
+    public void setMaxBatchCreate(int maxBatchCreate) {
+        this.maxBatchCreate = maxBatchCreate;
+    }
+
+    public long getPageCacheMaxWeight() {
+        return pageCacheMaxWeight;
+    }
+
+    public void setPageCacheMaxWeight(long pageCacheMaxWeight) {
+        this.pageCacheMaxWeight = pageCacheMaxWeight;
+    }
+
+    public long getPageCacheExpireMinutes() {
+        return pageCacheExpireMinutes;
+    }
+
+    public void setPageCacheExpireMinutes(long pageCacheExpireMinutes) {
+        this.pageCacheExpireMinutes = pageCacheExpireMinutes;
+    }
+
+    public long getIdempotencyMaxKeys() {
+        return idempotencyMaxKeys;
+    }
+
+    public void setIdempotencyMaxKeys(long idempotencyMaxKeys) {
+        this.idempotencyMaxKeys = idempotencyMaxKeys;
+    }
+
+    public long getIdempotencyKeyExpireMinutes() {
+        return idempotencyKeyExpireMinutes;
+    }
+
+    public void setIdempotencyKeyExpireMinutes(long idempotencyKeyExpireMinutes) {
+        this.idempotencyKeyExpireMinutes = idempotencyKeyExpireMinutes;
+    }
+
+    public int getPurgeRetentionDays() {
+        return purgeRetentionDays;
+    }
+
+    public void setPurgeRetentionDays(int purgeRetentionDays) {
+        this.purgeRetentionDays = purgeRetentionDays;
+    }
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    public void setPurgeBatchSize(int purgeBatchSize) {
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public int getPurgeMaxBatchesPerRun() {
+        return purgeMaxBatchesPerRun;
+    }
+
+    public void setPurgeMaxBatchesPerRun(int purgeMaxBatchesPerRun) {
+        this.purgeMaxBatchesPerRun = purgeMaxBatchesPerRun;
+    }
+
+    public int getImportWriterThreads() {
+        return importWriterThreads;
+    }
+
+    public void setImportWriterThreads(int importWriterThreads) {
+        this.importWriterThreads = importWriterThreads;
+    }
+
+    public int getImportMaxErrors() {
+        return importMaxErrors;
+    }
+
+    public void setImportMaxErrors(int importMaxErrors) {
+        this.importMaxErrors = importMaxErrors;
+    }
+
+    public int getPositionRebalanceLength() {
+        return positionRebalanceLength;
+    }
+
+    public void setPositionRebalanceLength(int positionRebalanceLength) {
+        this.positionRebalanceLength = positionRebalanceLength;
+    }
+
+    public int getPositionRebalanceMaxUsersPerRun() {
+        return positionRebalanceMaxUsersPerRun;
+    }
+
+    public void setPositionRebalanceMaxUsersPerRun(int positionRebalanceMaxUsersPerRun) {
+        this.positionRebalanceMaxUsersPerRun = positionRebalanceMaxUsersPerRun;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public void setWriteBehindQueueCapacity(int writeBehindQueueCapacity) {
+        this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+    }
+
+    public int getWriteBehindMaxGroupSize() {
+        return writeBehindMaxGroupSize;
+    }
+
+    public void setWriteBehindMaxGroupSize(int writeBehindMaxGroupSize) {
+        this.writeBehindMaxGroupSize = writeBehindMaxGroupSize;
+    }
+
+    public long getWriteBehindMaxDelayMillis() {
+        return writeBehindMaxDelayMillis;
+    }
+
+    public void setWriteBehindMaxDelayMillis(long writeBehindMaxDelayMillis) {
+        this.writeBehindMaxDelayMillis = writeBehindMaxDelayMillis;
+    }
+
+    public long getWriteBehindEnqueueTimeoutMillis() {
+        return writeBehindEnqueueTimeoutMillis;
+    }
+
+    public void setWriteBehindEnqueueTimeoutMillis(long writeBehindEnqueueTimeoutMillis) {
+        this.writeBehindEnqueueTimeoutMillis = writeBehindEnqueueTimeoutMillis;
+    }
+
+}
@@ -1,93 +1,394 @@
 package com.mytodolist.controllers;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import com.mytodolist.dtos.EntryBatchCreateDTO;
+import com.mytodolist.dtos.EntryBatchDTO;
+import com.mytodolist.dtos.EntryBulkResultDTO;
+import com.mytodolist.dtos.EntryBulkUpdateDTO;
+import com.mytodolist.dtos.EntryChangesDTO;
 import com.mytodolist.dtos.EntryDTO;
+import com.mytodolist.dtos.EntryImportResultDTO;
+import com.mytodolist.dtos.EntryMoveDTO;
+import com.mytodolist.dtos.EntryPageDTO;
+import com.mytodolist.dtos.EntryPatchDTO;
 import com.mytodolist.dtos.EntryResponseDTO;
-import com.mytodolist.exceptions.EntryNotFoundException;
-import com.mytodolist.exceptions.UnauthorizedAccessException;
+import com.mytodolist.dtos.EntrySearchResultDTO;
+import com.mytodolist.dtos.EntryStatsDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.exceptions.EntryVersionMismatchException;
 import com.mytodolist.models.Entry;
 import com.mytodolist.models.User;
-import com.mytodolist.security.userdetails.TodoUserDetails;
+import com.mytodolist.security.userdetails.JwtPrincipal;
+import com.mytodolist.services.EntryIdempotency;
+import com.mytodolist.services.EntryImport;
+import com.mytodolist.services.EntryPageResponseCache;
+import com.mytodolist.services.EntryPageResponseCache.EncodedPage;
 import com.mytodolist.services.EntryService;
+import com.mytodolist.services.EntryStatsService;
+import com.mytodolist.services.EntryWriteBehind;
+import com.mytodolist.services.SearchIndexService;
 
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping(path = "/api/v1/entries", produces = "application/json")
-@CrossOrigin(origins = "http://localhost:5173") // Allow cross-origin requests from frontend
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = "ETag") // Allow cross-origin requests from frontend
 public class EntryController {
 
     private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryController.class);
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final EntryService entryService;
+    private final SearchIndexService searchIndexService;
+    private final EntryStatsService entryStatsService;
+    private final ObjectMapper objectMapper;
+    private final EntryPageResponseCache entryPageResponseCache;
+    private final EntryWriteBehind entryWriteBehind;
+    private final EntryIdempotency entryIdempotency;
+    private final EntryImport entryImport;
 
-    public EntryController(EntryService entryService) {
+    public EntryController(EntryService entryService, SearchIndexService searchIndexService,
+            EntryStatsService entryStatsService, ObjectMapper objectMapper,
+            EntryPageResponseCache entryPageResponseCache, EntryWriteBehind entryWriteBehind,
+            EntryIdempotency entryIdempotency, EntryImport entryImport) {
 
         this.entryService = entryService;
+        this.searchIndexService = searchIndexService;
+        this.entryStatsService = entryStatsService;
+        this.objectMapper = objectMapper;
+        this.entryPageResponseCache = entryPageResponseCache;
+        this.entryWriteBehind = entryWriteBehind;
+        this.entryIdempotency = entryIdempotency;
+        this.entryImport = entryImport;
     }
 
     @GetMapping
-    public List<Entry> getEntries() {
+    public ResponseEntity<byte[]> getEntries(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit, WebRequest webRequest) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        User user = ((JwtPrincipal) auth.getPrincipal()).toUser();
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // read the version before the page: a write in between only makes the ETag older than the body, never newer
+        long listVersion = entryStatsService.getListVersion(user.getId());
+        // the gzip bytes are a different representation of the same version, so they carry a tag of their own
+        String etag = "\"" + listVersion + (gzip ? "-gz" : "") + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, the entries table is never touched
+        }
+
+        // the first page is what every client opens with, so it is kept ready to write
+        byte[] body;
+        if ((cursor == null || cursor.isBlank()) && limit == null) {
+            EncodedPage page = entryPageResponseCache.getFirstPage(user.getId(), listVersion,
+                    () -> entryService.getFirstPage(user));
+            body = gzip ? page.getGzip() : page.getJson();
+        } else {
+            body = entryPageResponseCache.encode(entryService.getEntryPage(user, cursor, limit), gzip);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body);
+        }
+        return response.body(body);
+    }
+
+    // GET /api/v1/entries?ids=1,2,3
+    @GetMapping(params = "ids")
+    public EntryBatchDTO getEntriesByIds(@RequestParam List<Long> ids) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        // turn this into a pagination version later.
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.getEntriesByIds(userId, ids);
+    }
 
-        User user = ((TodoUserDetails) auth.getPrincipal()).getUser();
-        return entryService.getEntriesByUser(user);
+    // e.g. /query?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&prefix=Meeting&sort=-createdAt
+    @GetMapping("/query")
+    public List<EntrySummaryDTO> queryEntries(@RequestParam(required = false) String from,
+            @RequestParam(required = false) String to, @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String sort, @RequestParam(required = false) Integer limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.queryEntries(userId, from, to, prefix, sort, limit);
     }
 
+    // the manual order, paged: pass the nextCursor of the previous page until it comes back null
+    @GetMapping("/ordered")
+    public EntryPageDTO getOrderedEntries(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.getPositionPage(userId, cursor, limit);
+    }
+
+    // delta sync: pass the version of the previous response as `since` (0 for a full download)
+    @GetMapping("/changes")
+    public EntryChangesDTO getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.getChangesSince(userId, since, limit);
+    }
+
+    @GetMapping("/stats")
+    public EntryStatsDTO getEntryStats() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryStatsService.getStats(userId);
+    }
+
+    @GetMapping("/search")
+    public List<EntrySearchResultDTO> searchEntries(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return searchIndexService.search(userId, q, limit);
+    }
+
+    // produces */* so that errors can still be rendered as JSON
+    @GetMapping(path = "/export", produces = MediaType.ALL_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEntries(@RequestParam(defaultValue = "ndjson") String format) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                body = out -> writeNdjson(userId, out);
+                contentType = MediaType.APPLICATION_NDJSON;
+            }
+            case "csv" -> {
+                body = out -> writeCsv(userId, out);
+                contentType = TEXT_CSV;
+            }
+            default ->
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entries." + format.toLowerCase() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/{entryId}")
+    public ResponseEntity<EntryResponseDTO> getEntry(@PathVariable Long entryId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return withEtag(entryService.getOwnedEntry(userId, entryId));
+    }
+
+    // a retry carrying the same Idempotency-Key gets the first response back instead of a second entry
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public EntryResponseDTO createEntry(@Valid @RequestBody EntryDTO entryDTO) {
+    public EntryResponseDTO createEntry(@Valid @RequestBody EntryDTO entryDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = ((JwtPrincipal) auth.getPrincipal()).toUser();
+        return entryIdempotency.create(user.getId(), idempotencyKey, entryDTO.getEntryBody(), () -> {
+            if (entryWriteBehind.isEnabled()) { // answered once the group holding this entry has committed
+                return new EntryResponseDTO(entryWriteBehind.create(entryDTO.getEntryBody(), user));
+            }
+            Entry entry = new Entry();
+            entry.setEntryBody(entryDTO.getEntryBody());
+            entry.setUser(user);
+            return new EntryResponseDTO(entryService.createEntry(entry, user));
+        });
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<EntryResponseDTO> createEntries(@Valid @RequestBody EntryBatchCreateDTO batch) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = ((JwtPrincipal) auth.getPrincipal()).toUser();
+        List<String> bodies = batch.getEntries().stream().map(EntryDTO::getEntryBody).toList();
+        return entryService.createEntries(bodies, user).stream().map(EntryResponseDTO::new).toList();
+    }
+
+    // the body is read as it arrives and committed chunk by chunk, so an upload of any size is fine
+    @PostMapping(path = "/import", consumes = MediaType.ALL_VALUE)
+    public EntryImportResultDTO importEntries(@RequestParam(defaultValue = "ndjson") String format, InputStream body)
+            throws IOException {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Entry entry = new Entry();
-        User user = ((TodoUserDetails) auth.getPrincipal()).getUser();
-        entry.setEntryBody(entryDTO.getEntryBody());
-        entry.setUser(user);
-        EntryResponseDTO response = new EntryResponseDTO(entryService.createEntry(entry, user));
-        return response;
+        User user = ((JwtPrincipal) auth.getPrincipal()).toUser();
+        return entryImport.importEntries(user, body, format);
     }
 
+    @PutMapping("/bulk")
+    public EntryBulkResultDTO updateEntries(@Valid @RequestBody EntryBulkUpdateDTO bulk) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.updateEntries(userId, bulk.getEntries());
+    }
+
+    // If-Match is optional; when sent, the write only happens if the entry is still at that version (else 412)
     @PutMapping("/{entryId}")
-    public EntryResponseDTO updateEntry(@PathVariable Long entryId, @Valid @RequestBody EntryDTO entryDTO) {
+    public ResponseEntity<EntryResponseDTO> updateEntry(@PathVariable Long entryId, @Valid @RequestBody EntryDTO entryDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String newBody = entryDTO.getEntryBody();
-        String loggedInUsername = ((TodoUserDetails) auth.getPrincipal()).getUser().getUsername();
-        Entry entry = entryService.getEntryById(entryId).orElseThrow(() -> new EntryNotFoundException(entryId));
-        if (!entry.getUser().getUsername().equals(loggedInUsername)) {
-            throw new UnauthorizedAccessException("You do not have permission to update this entry.");
-        }
-        EntryResponseDTO response = new EntryResponseDTO(entryService.updateEntryById(entryId, newBody));
-        return response;
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        // ownership is checked in the write itself
+        return withEtag(entryService.updateEntryById(userId, entryId, entryDTO.getEntryBody(), parseIfMatch(ifMatch)));
+    }
+
+    // e.g. {"baseVersion": 4, "edits": [{"at": 12, "delete": 3, "insert": "milk"}]}; 412 when the entry has moved on
+    @PatchMapping("/{entryId}")
+    public ResponseEntity<EntryResponseDTO> patchEntry(@PathVariable Long entryId, @Valid @RequestBody EntryPatchDTO patch) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return withEtag(entryService.patchEntryById(userId, entryId, patch.getBaseVersion(), patch.getEdits()));
+    }
+
+    // DELETE /api/v1/entries?ids=1,2,3
+    @DeleteMapping(params = "ids")
+    public EntryBulkResultDTO deleteEntries(@RequestParam List<Long> ids) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return entryService.deleteEntries(userId, ids);
     }
 
     @DeleteMapping("/{entryId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteEntry(@PathVariable Long entryId) {
+    public void deleteEntry(@PathVariable Long entryId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        entryService.deleteEntryById(userId, entryId, parseIfMatch(ifMatch));
+    }
 
-        String loggedInUsername = ((TodoUserDetails) auth.getPrincipal()).getUser().getUsername();
-        Entry entry = entryService.getEntryById(entryId).orElseThrow(() -> new EntryNotFoundException(entryId));
+    // deleted entries can be brought back until EntryPurge removes them
+    @PostMapping("/{entryId}/restore")
+    public ResponseEntity<EntryResponseDTO> restoreEntry(@PathVariable Long entryId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        return withEtag(entryService.restoreEntryById(userId, entryId));
+    }
 
-        if (!entry.getUser().getUsername().equals(loggedInUsername)) {
-            throw new UnauthorizedAccessException("You do not have permission to delete this entry.");
+    // e.g. {"afterId": 7, "beforeId": 9}; leave one out to move the entry to that end of the list
+    @PostMapping("/{entryId}/move")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void moveEntry(@PathVariable Long entryId, @Valid @RequestBody EntryMoveDTO move) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((JwtPrincipal) auth.getPrincipal()).getUserId();
+        entryService.moveEntry(userId, entryId, move.getAfterId(), move.getBeforeId());
+    }
+
+    private static ResponseEntity<EntryResponseDTO> withEtag(EntryResponseDTO entry) {
+        return ResponseEntity.ok().eTag("\"" + entry.getVersion() + "\"").body(entry);
+    }
+
+    // "3" names a version, * or no header means any version; If-Match compares strongly, so W/"3" never matches (412)
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) {
+            throw new EntryVersionMismatchException("If-Match must be a strong ETag, " + tag + " never matches");
         }
-        entryService.deleteEntryById(entryId);
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ex) {
+                // falls through
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be a single entry ETag");
+    }
+
+    // "gzip" or "*" with a non-zero q-value; an explicit gzip entry wins over the wildcard, so gzip;q=0 refuses it
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].strip().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].strip();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).strip());
+                    } catch (NumberFormatException ex) {
+                        q = 0; // a weight we cannot read is not taken as consent
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        double weight = gzip != null ? gzip : any != null ? any : 0;
+        return weight > 0;
+    }
+
+    private void writeNdjson(Long userId, OutputStream out) throws IOException {
+        try (SequenceWriter lines = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            entryService.exportEntries(userId, entry -> {
+                try {
+                    lines.write(new EntryResponseDTO(entry));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,createdAt,entryBody\r\n");
+        entryService.exportEntries(userId, entry -> {
+            try {
+                writer.write(entry.getId() + "," + entry.getCreatedAt() + ","
+                        + "\"" + entry.getEntryBody().replace("\"", "\"\"") + "\"\r\n");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writer.flush();
     }
 
 }
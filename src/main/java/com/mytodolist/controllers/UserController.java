@@ -2,17 +2,19 @@ package com.mytodolist.controllers;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mytodolist.exceptions.UnauthenticatedAccessException;
 import com.mytodolist.models.User;
-import com.mytodolist.security.userdetails.TodoUserDetails;
+import com.mytodolist.security.userdetails.JwtPrincipal;
 import com.mytodolist.services.UserService;
 import java.util.Set;
 
@@ -45,7 +47,22 @@ public class UserController {
         if (auth == null || !auth.isAuthenticated()) {
             throw new UnauthenticatedAccessException("User is not authenticated");
         }
-        TodoUserDetails userDetails = (TodoUserDetails) auth.getPrincipal();
-        return new MeDTO(userDetails.getUser().getId(), userDetails.getUsername(), userDetails.getRoles());
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        return new MeDTO(principal.getUserId(), principal.getUsername(), principal.getRoles());
 
     }
+
+    // 202: the account is disabled now and removed shortly after by the deletion worker
+    @DeleteMapping("/me")
+    public ResponseEntity<Void> deleteCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new UnauthenticatedAccessException("User is not authenticated");
+        }
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        userService.deleteUser(principal.getUserId());
+        return ResponseEntity.accepted().build();
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public class EntryBatchCreateDTO {
+
+    @NotEmpty(message = "At least one entry is required")
+    @Valid
+    private List<EntryDTO> entries;
+
+    public EntryBatchCreateDTO() {
+    }
+
+    public EntryBatchCreateDTO(List<EntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    public List<EntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<EntryDTO> entries) {
+        this.entries = entries;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+public class EntryBatchDTO {
+
+    private List<EntryResponseDTO> entries; // in the order the ids were requested
+    private List<Long> missing; // ids that do not exist or belong to someone else
+
+    public EntryBatchDTO(List<EntryResponseDTO> entries, List<Long> missing) {
+        this.entries = entries;
+        this.missing = missing;
+    }
+
+    public List<EntryResponseDTO> getEntries() {
+        return entries;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+public class EntryBulkResultDTO {
+
+    private int affected;
+    private List<Long> missing; // ids that do not exist or belong to someone else, left untouched
+
+    public EntryBulkResultDTO(int affected, List<Long> missing) {
+        this.affected = affected;
+        this.missing = missing;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public class EntryBulkUpdateDTO {
+
+    @NotEmpty(message = "At least one entry is required")
+    @Valid
+    private List<EntryUpdateDTO> entries;
+
+    public EntryBulkUpdateDTO() {
+    }
+
+    public EntryBulkUpdateDTO(List<EntryUpdateDTO> entries) {
+        this.entries = entries;
+    }
+
+    public List<EntryUpdateDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<EntryUpdateDTO> entries) {
+        this.entries = entries;
+    }
+
+}
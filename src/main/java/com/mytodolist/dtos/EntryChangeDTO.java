@@ -0,0 +1,52 @@
+package com.mytodolist.dtos;
+
+import java.time.Instant;
+
+public class EntryChangeDTO {
+
+    private Long id;
+    private String entryBody;
+    private String position; // the manual order key, so a reorder reaches sync clients like any other change
+    private Instant createdAt;
+    private Instant updatedAt;
+    private long changeSeq;
+
+    public EntryChangeDTO(Long id, String entryBody, Instant createdAt, Instant updatedAt, long changeSeq) {
+        this.id = id;
+        this.entryBody = entryBody;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.changeSeq = changeSeq;
+    }
+
+    public EntryChangeDTO(Long id, String entryBody, String legacyBody, String position, Instant createdAt,
+            Instant updatedAt, long changeSeq) {
+        this(id, entryBody != null ? entryBody : legacyBody, createdAt, updatedAt, changeSeq);
+        this.position = position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEntryBody() {
+        return entryBody;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+}
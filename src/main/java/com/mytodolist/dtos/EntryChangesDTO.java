@@ -0,0 +1,35 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+public class EntryChangesDTO {
+
+    private List<EntryChangeDTO> upserts;
+    private List<Long> deletes;
+    private long version; // pass back as ?since= on the next call
+    private boolean hasMore;
+
+    public EntryChangesDTO(List<EntryChangeDTO> upserts, List<Long> deletes, long version, boolean hasMore) {
+        this.upserts = upserts;
+        this.deletes = deletes;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    public List<EntryChangeDTO> getUpserts() {
+        return upserts;
+    }
+
+    public List<Long> getDeletes() {
+        return deletes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.mytodolist.dtos;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// one splice: remove `delete` chars at `at`, then put `insert` there. Offsets count UTF-16 chars, as JS strings do
+public class EntryEditDTO {
+
+    @NotNull(message = "Edit offset is required")
+    @Min(value = 0, message = "Edit offset must not be negative")
+    private Integer at;
+
+    @Min(value = 0, message = "Delete count must not be negative")
+    private int delete;
+
+    @Size(max = 5000, message = "Inserted text cannot exceed 5000 characters")
+    private String insert;
+
+    public EntryEditDTO() {
+    }
+
+    public EntryEditDTO(Integer at, int delete, String insert) {
+        this.at = at;
+        this.delete = delete;
+        this.insert = insert;
+    }
+
+    public Integer getAt() {
+        return at;
+    }
+
+    public void setAt(Integer at) {
+        this.at = at;
+    }
+
+    public int getDelete() {
+        return delete;
+    }
+
+    public void setDelete(int delete) {
+        this.delete = delete;
+    }
+
+    public String getInsert() {
+        return insert;
+    }
+
+    public void setInsert(String insert) {
+        this.insert = insert;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+public class EntryImportResultDTO {
+
+    private long rows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors; // the first failures only, failed counts all of them
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    public EntryImportResultDTO(long rows, long imported, long failed, List<RowError> errors, long elapsedMillis) {
+        this.rows = rows;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rows * 1000 / Math.max(elapsedMillis, 1);
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public static class RowError {
+
+        private long line; // where the row starts in the uploaded file, 1-based
+        private String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.mytodolist.dtos;
+
+// the entries the moved one should end up between; null on one side means that end of the list
+public class EntryMoveDTO {
+
+    private Long afterId;
+    private Long beforeId;
+
+    public EntryMoveDTO() {
+    }
+
+    public EntryMoveDTO(Long afterId, Long beforeId) {
+        this.afterId = afterId;
+        this.beforeId = beforeId;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    public Long getBeforeId() {
+        return beforeId;
+    }
+
+    public void setBeforeId(Long beforeId) {
+        this.beforeId = beforeId;
+    }
+
+}
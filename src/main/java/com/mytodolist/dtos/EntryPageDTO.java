@@ -0,0 +1,23 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+public class EntryPageDTO {
+
+    private List<EntrySummaryDTO> entries;
+    private String nextCursor; // null when this is the last page
+
+    public EntryPageDTO(List<EntrySummaryDTO> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EntrySummaryDTO> getEntries() {
+        return entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.mytodolist.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// edits apply in order, each to the text left by the previous one, starting from the body at baseVersion
+public class EntryPatchDTO {
+
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotEmpty(message = "At least one edit is required")
+    @Size(max = 100, message = "At most 100 edits can be sent at once")
+    @Valid
+    private List<EntryEditDTO> edits;
+
+    public EntryPatchDTO() {
+    }
+
+    public EntryPatchDTO(Long baseVersion, List<EntryEditDTO> edits) {
+        this.baseVersion = baseVersion;
+        this.edits = edits;
+    }
+
+    public Long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public List<EntryEditDTO> getEdits() {
+        return edits;
+    }
+
+    public void setEdits(List<EntryEditDTO> edits) {
+        this.edits = edits;
+    }
+
+}
@@ -17,13 +17,39 @@ public class EntryResponseDTO {
 
     private Instant createdAt;
 
+    private Long version; // matches the ETag; send it back in If-Match to update or delete safely
+
     public EntryResponseDTO(Entry entry) {
         this.id = entry.getId();
 
         this.entryBody = entry.getEntryBody();
         this.username = entry.getUser().getUsername();
         this.createdAt = entry.getCreatedAt();
+        this.version = entry.getVersion();
+
+    }
 
+    // used by JPQL constructor expressions so list reads never materialize managed entities
+    public EntryResponseDTO(Long id, String entryBody, String username, Instant createdAt) {
+        this.id = id;
+        this.entryBody = entryBody;
+        this.username = username;
+        this.createdAt = createdAt;
+    }
+
+    // same, for rows whose body may still sit in the legacy uncompressed column
+    public EntryResponseDTO(Long id, String entryBody, String legacyBody, String username, Instant createdAt) {
+        this(id, entryBody != null ? entryBody : legacyBody, username, createdAt);
+    }
+
+    public EntryResponseDTO(Long id, String entryBody, String legacyBody, String username, Instant createdAt, Long version) {
+        this(id, entryBody, legacyBody, username, createdAt);
+        this.version = version;
+    }
+
+    public EntryResponseDTO(Long id, String entryBody, String username, Instant createdAt, Long version) {
+        this(id, entryBody, username, createdAt);
+        this.version = version;
     }
 
     public Long getId() {
@@ -42,4 +68,8 @@ public class EntryResponseDTO {
         return createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
 }
@@ -0,0 +1,21 @@
+package com.mytodolist.dtos;
+
+public class EntrySearchResultDTO {
+
+    private EntryResponseDTO entry;
+    private double score;
+
+    public EntrySearchResultDTO(EntryResponseDTO entry, double score) {
+        this.entry = entry;
+        this.score = score;
+    }
+
+    public EntryResponseDTO getEntry() {
+        return entry;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.mytodolist.dtos;
+
+public class EntryStatsDTO {
+
+    private long entryCount;
+    private long storedBytes;
+    private int maxEntries;
+
+    public EntryStatsDTO(long entryCount, long storedBytes, int maxEntries) {
+        this.entryCount = entryCount;
+        this.storedBytes = storedBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+}
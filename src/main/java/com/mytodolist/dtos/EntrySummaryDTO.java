@@ -0,0 +1,40 @@
+package com.mytodolist.dtos;
+
+import java.time.Instant;
+
+// list view of an entry: the full body is fetched on demand from GET /api/v1/entries/{id}
+public class EntrySummaryDTO {
+
+    private Long id;
+    private String preview;
+    private Instant createdAt;
+    private String position; // manual order key; clients keep it to place entries they move or sync later
+
+    public EntrySummaryDTO(Long id, String preview, Instant createdAt) {
+        this.id = id;
+        this.preview = preview;
+        this.createdAt = createdAt;
+    }
+
+    public EntrySummaryDTO(Long id, String preview, Instant createdAt, String position) {
+        this(id, preview, createdAt);
+        this.position = position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.mytodolist.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class EntryUpdateDTO {
+
+    @NotNull(message = "Entry id is required")
+    private Long id;
+
+    @NotNull(message = "Entry body is required")
+    @Size(max = 5000, message = "Entry cannot exceed 5000 characters")
+    private String entryBody;
+
+    public EntryUpdateDTO() {
+    }
+
+    public EntryUpdateDTO(Long id, String entryBody) {
+        this.id = id;
+        this.entryBody = entryBody;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntryBody() {
+        return entryBody;
+    }
+
+    public void setEntryBody(String entryBody) {
+        this.entryBody = entryBody;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.mytodolist.exceptions;
+
+public class EntryMoveConflictException extends RuntimeException {
+
+    public EntryMoveConflictException(Long afterId, Long beforeId) {
+        super("Entries " + afterId + " and " + beforeId + " are no longer next to each other");
+    }
+
+}
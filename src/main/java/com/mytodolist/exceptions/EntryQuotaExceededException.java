@@ -0,0 +1,9 @@
+package com.mytodolist.exceptions;
+
+public class EntryQuotaExceededException extends RuntimeException {
+
+    public EntryQuotaExceededException(int maxEntries) {
+        super("Entry limit of " + maxEntries + " reached");
+    }
+
+}
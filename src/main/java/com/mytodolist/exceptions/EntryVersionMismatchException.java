@@ -0,0 +1,13 @@
+package com.mytodolist.exceptions;
+
+public class EntryVersionMismatchException extends RuntimeException {
+
+    public EntryVersionMismatchException(Long entryId, Long expectedVersion) {
+        super("Entry " + entryId + " has changed since version " + expectedVersion);
+    }
+
+    public EntryVersionMismatchException(String message) {
+        super(message);
+    }
+
+}
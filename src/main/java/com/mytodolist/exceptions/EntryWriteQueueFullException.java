@@ -0,0 +1,9 @@
+package com.mytodolist.exceptions;
+
+public class EntryWriteQueueFullException extends RuntimeException {
+
+    public EntryWriteQueueFullException() {
+        super("Too many entries are waiting to be written, try again shortly");
+    }
+
+}
@@ -5,6 +5,7 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -170,6 +171,71 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    /*CUSTOM: when a user has reached the configured maximum number of entries */
+    @ExceptionHandler(EntryQuotaExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleEntryQuotaExceededException(
+            EntryQuotaExceededException ex, WebRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.CONFLICT.value(), // 409
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /*CUSTOM: when a move names neighbours that other writes have since pulled apart */
+    @ExceptionHandler(EntryMoveConflictException.class)
+    public ResponseEntity<ErrorResponseDTO> handleEntryMoveConflictException(
+            EntryMoveConflictException ex, WebRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.CONFLICT.value(), // 409
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /*CUSTOM: when If-Match names an entry version that is no longer current */
+    @ExceptionHandler(EntryVersionMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleEntryVersionMismatchException(
+            EntryVersionMismatchException ex, WebRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.PRECONDITION_FAILED.value(), // 412
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    /*CUSTOM: backpressure from the write-behind queue, the client should retry */
+    @ExceptionHandler(EntryWriteQueueFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleEntryWriteQueueFullException(
+            EntryWriteQueueFullException ex, WebRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), // 503
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+
+    /*CUSTOM: the request is well formed, but its Idempotency-Key belongs to a different entry */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyReusedException(
+            IdempotencyKeyReusedException ex, WebRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(), // 422
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
     @ExceptionHandler(UnauthenticatedAccessException.class)
     public ResponseEntity<ErrorResponseDTO> handleUnauthenticatedAccessException(
             UnauthenticatedAccessException ex, WebRequest request) {
@@ -0,0 +1,9 @@
+package com.mytodolist.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different entry");
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.mytodolist.models;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of one pending account deletion. The row is written in the same transaction as every chunk
+ * it records, so after a crash the worker picks up at the stored phase; it goes away together with
+ * the user row in the last chunk.
+ */
+@Entity
+@Table(name = "account_deletions", indexes = {
+    @Index(name = "idx_account_deletions_requested_at", columnList = "requested_at")
+})
+public class AccountDeletion {
+
+    // in the order they run; each one empties one kind of row before the next starts
+    public enum Phase {
+        ENTRIES, TOMBSTONES, REFRESH_TOKENS, ACCOUNT
+    }
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Phase phase;
+
+    @Column(nullable = false)
+    private long removedRows;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public AccountDeletion() {
+    }
+
+    public AccountDeletion(Long userId, Instant requestedAt) {
+        this.userId = userId;
+        this.requestedAt = requestedAt;
+        this.phase = Phase.ENTRIES;
+        this.updatedAt = requestedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getRemovedRows() {
+        return removedRows;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void advance(Phase next, Instant now) {
+        this.phase = next;
+        this.updatedAt = now;
+    }
+
+    public void recordRemoved(int rows, Instant now) {
+        this.removedRows += rows;
+        this.updatedAt = now;
+    }
+
+}
@@ -5,25 +5,47 @@ import java.time.Instant;
 import java.util.Objects;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "entries")
+@Table(name = "entries", indexes = {
+    @Index(name = "idx_entries_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_entries_user_change_seq", columnList = "user_id, change_seq"),
+    @Index(name = "idx_entries_user_updated_id", columnList = "user_id, updated_at, id"),
+    @Index(name = "idx_entries_user_preview", columnList = "user_id, preview"),
+    @Index(name = "idx_entries_deleted_at", columnList = "deleted_at"),
+    @Index(name = "idx_entries_user_position", columnList = "user_id, position")
+})
+// soft-deleted rows are invisible to every entity load, JPQL and criteria query; on Postgres the indexes
+// above can be made partial (WHERE deleted_at IS NULL) since every read carries exactly this predicate
+@SQLRestriction("deleted_at IS NULL")
 public class Entry implements Serializable {
 
+    public static final int PREVIEW_LENGTH = 200;
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int POSITION_LENGTH = 255;
+
+    // pooled sequence: ids are handed out 50 at a time without a round trip, so inserts can be JDBC batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entries_seq")
+    @SequenceGenerator(name = "entries_seq", sequenceName = "entries_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -34,20 +56,42 @@ public class Entry implements Serializable {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    private Long changeSeq; // the owner's list version at the last write, drives /entries/changes
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0") // the default fills rows that predate the column
+    private Long version; // bumped on every content write, handed to clients as the entry's ETag
+
+    private Instant deletedAt; // set by a delete, cleared by a restore; EntryPurge removes the row later
+
     @Size(max = 5000, message = "Entry body too long")
-    @Column(length = 5000, nullable = false)
+    @Convert(converter = EntryBodyConverter.class)
+    @Column(name = "body_data", length = 5000 * 4 + 1) // worst case: 4 UTF-8 bytes per char plus the header
     private String entryBody;
 
+    // pre-compression column, emptied by EntryBodyRecompaction; still read for rows it has not reached yet
+    @Column(name = "entry_body", length = 5000, nullable = false)
+    private String legacyBody = "";
+
+    @Column(length = PREVIEW_LENGTH)
+    private String preview; // derived from entryBody so list queries never have to read the body column
+
+    @Column(length = POSITION_LENGTH)
+    private String position; // fractional index key of the manual order, see EntryPosition; null on rows older than it
+
     public Entry() {
     }
 
     public Entry(String entryBody, User user) {
-        this.entryBody = entryBody;
+        setEntryBody(entryBody);
         this.user = user;
     }
 
     public Entry(String entryBody) {
-        this.entryBody = entryBody;
+        setEntryBody(entryBody);
     }
 
     public Long getId() {
@@ -74,12 +118,63 @@ public class Entry implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
     public String getEntryBody() {
-        return entryBody;
+        return entryBody != null ? entryBody : legacyBody;
     }
 
     public void setEntryBody(String entryBody) {
         this.entryBody = entryBody;
+        this.legacyBody = "";
+        this.preview = previewOf(entryBody);
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    // first non-blank line of the body, trimmed and cut to PREVIEW_LENGTH without splitting a surrogate pair
+    public static String previewOf(String body) {
+        if (body == null) {
+            return null;
+        }
+        String line = body.strip().lines().findFirst().orElse("").strip();
+        if (line.length() <= PREVIEW_LENGTH) {
+            return line;
+        }
+        int end = Character.isHighSurrogate(line.charAt(PREVIEW_LENGTH - 1)) ? PREVIEW_LENGTH - 1 : PREVIEW_LENGTH;
+        return line.substring(0, end);
     }
 
     @Override
@@ -0,0 +1,102 @@
+package com.mytodolist.models;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Storage format of entry bodies: one header byte followed by the payload.
+ * RAW is plain UTF-8; DEFLATED is zlib-compressed UTF-8, used only for bodies past
+ * the threshold and only when it actually comes out smaller.
+ */
+@Converter
+public class EntryBodyConverter implements AttributeConverter<String, byte[]> {
+
+    public static final byte RAW = 0;
+    public static final byte DEFLATED = 1;
+    public static final int COMPRESSION_THRESHOLD = 512; // UTF-8 bytes; short notes do not shrink enough to pay for it
+
+    @Override
+    public byte[] convertToDatabaseColumn(String body) {
+        return body == null ? null : encode(body, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return data == null ? null : decode(data);
+    }
+
+    public static byte[] encode(String body, int level) {
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= COMPRESSION_THRESHOLD) {
+            byte[] deflated = deflate(utf8, level);
+            if (deflated.length + 1 < utf8.length) {
+                return withHeader(DEFLATED, deflated, deflated.length);
+            }
+        }
+        return withHeader(RAW, utf8, utf8.length);
+    }
+
+    public static String decode(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalStateException("Entry body has no format header");
+        }
+        return switch (data[0]) {
+            case RAW -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case DEFLATED -> new String(inflate(data), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown entry body format " + data[0]);
+        };
+    }
+
+    private static byte[] deflate(byte[] input, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[input.length];
+            int length = 0;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            // did not fit in the input size: not worth compressing
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : input;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated entry body");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt entry body", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] withHeader(byte format, byte[] payload, int length) {
+        byte[] data = new byte[length + 1];
+        data[0] = format;
+        System.arraycopy(payload, 0, data, 1, length);
+        return data;
+    }
+
+}
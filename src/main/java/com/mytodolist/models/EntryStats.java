@@ -0,0 +1,91 @@
+package com.mytodolist.models;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running totals of a user's entries, maintained by EntryService on every write
+ * so that counts and quotas never need a scan of the entries table.
+ */
+@Entity
+@Table(name = "user_entry_stats")
+public class EntryStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long entryCount;
+
+    @Column(nullable = false)
+    private long storedBytes; // UTF-8 size of all entry bodies
+
+    @Column(nullable = false)
+    private long listVersion; // bumped on every write, served as the ETag of the entry list
+
+    private Instant positionRebalanceRequestedAt; // set once a position key got long, cleared by EntryPositionRebalance
+
+    public EntryStats() {
+    }
+
+    public EntryStats(Long userId, long entryCount, long storedBytes) {
+        this.userId = userId;
+        this.entryCount = entryCount;
+        this.storedBytes = storedBytes;
+        this.listVersion = 1;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public void setStoredBytes(long storedBytes) {
+        this.storedBytes = storedBytes;
+    }
+
+    public long getListVersion() {
+        return listVersion;
+    }
+
+    public long bumpListVersion() {
+        return ++listVersion;
+    }
+
+    public Instant getPositionRebalanceRequestedAt() {
+        return positionRebalanceRequestedAt;
+    }
+
+    public void requestPositionRebalance(Instant now) {
+        if (positionRebalanceRequestedAt == null) {
+            positionRebalanceRequestedAt = now;
+        }
+    }
+
+    public void clearPositionRebalance() {
+        positionRebalanceRequestedAt = null;
+    }
+
+    // reserves one version per write of a batch, returns the last one
+    public long bumpListVersion(int writes) {
+        listVersion += writes;
+        return listVersion;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.mytodolist.models;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Marker left behind by a deleted entry so that delta sync can tell clients to drop it.
+ */
+@Entity
+@Table(name = "entry_tombstones", indexes = {
+    @Index(name = "idx_entry_tombstones_user_change_seq", columnList = "user_id, change_seq")
+})
+public class EntryTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    public EntryTombstone() {
+    }
+
+    public EntryTombstone(Long entryId, Long userId, long changeSeq, Instant deletedAt) {
+        this.entryId = entryId;
+        this.userId = userId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Long getId() {
+        return entryId;
+    }
+
+    // tombstones are only ever inserted, so save() can persist without looking the id up first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.mytodolist.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user corpus statistics for BM25. A missing row means the user's
+ * index has not been built yet.
+ */
+@Entity
+@Table(name = "search_index_stats")
+public class SearchIndexStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long documentCount;
+
+    @Column(nullable = false)
+    private long totalLength;
+
+    public SearchIndexStats() {
+    }
+
+    public SearchIndexStats(Long userId, long documentCount, long totalLength) {
+        this.userId = userId;
+        this.documentCount = documentCount;
+        this.totalLength = totalLength;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public double getAverageLength() {
+        return documentCount == 0 ? 0 : (double) totalLength / documentCount;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.mytodolist.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One row of the inverted index: "term occurs termFrequency times in entry entryId".
+ * The posting list of a term for a user is a range scan on (user_id, term).
+ */
+@Entity
+@Table(name = "search_postings", indexes = {
+    @Index(name = "idx_search_postings_user_term", columnList = "user_id, term")
+})
+@IdClass(SearchPosting.Key.class)
+public class SearchPosting {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Id
+    @Column(length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int termFrequency;
+
+    @Column(nullable = false)
+    private int documentLength; // number of tokens in the entry, repeated on each posting for BM25
+
+    public SearchPosting() {
+    }
+
+    public SearchPosting(Long entryId, String term, Long userId, int termFrequency, int documentLength) {
+        this.entryId = entryId;
+        this.term = term;
+        this.userId = userId;
+        this.termFrequency = termFrequency;
+        this.documentLength = documentLength;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getTermFrequency() {
+        return termFrequency;
+    }
+
+    public int getDocumentLength() {
+        return documentLength;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long entryId;
+        private String term;
+
+        public Key() {
+        }
+
+        public Key(Long entryId, String term) {
+            this.entryId = entryId;
+            this.term = term;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(entryId, key.entryId) && Objects.equals(term, key.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entryId, term);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.mytodolist.models;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -40,6 +41,8 @@ public class User implements Serializable {
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "user")
     @JsonManagedReference // serialize this side of the relationship
     private List<Entry> entries;
+    @Column(name = "deletion_requested_at")
+    private Instant deletionRequestedAt; // set once the account is queued for deletion; the account is disabled from then on
 
     public User() {
         this.entries = new ArrayList<>();
@@ -88,6 +91,18 @@ public class User implements Serializable {
         this.entries = entries;
     }
 
+    public Instant getDeletionRequestedAt() {
+        return deletionRequestedAt;
+    }
+
+    public void setDeletionRequestedAt(Instant deletionRequestedAt) {
+        this.deletionRequestedAt = deletionRequestedAt;
+    }
+
+    public boolean isDisabled() {
+        return deletionRequestedAt != null;
+    }
+
     @Override
     public String toString() {
         return "User{"
@@ -0,0 +1,17 @@
+package com.mytodolist.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.mytodolist.models.AccountDeletion;
+
+public interface AccountDeletionRepository extends JpaRepository<AccountDeletion, Long> {
+
+    // oldest requests first, off idx_account_deletions_requested_at
+    @Query("SELECT d.userId FROM AccountDeletion d ORDER BY d.requestedAt ASC, d.userId ASC")
+    List<Long> findPendingUserIds(Limit limit);
+
+}
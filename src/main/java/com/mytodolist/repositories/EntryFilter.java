@@ -0,0 +1,35 @@
+package com.mytodolist.repositories;
+
+import java.time.Instant;
+
+public class EntryFilter {
+
+    private final Instant createdFrom; // inclusive
+    private final Instant createdTo; // exclusive
+    private final String previewPrefix; // case-sensitive, matched against the stored preview
+    private final EntrySort sort;
+
+    public EntryFilter(Instant createdFrom, Instant createdTo, String previewPrefix, EntrySort sort) {
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.previewPrefix = previewPrefix;
+        this.sort = sort;
+    }
+
+    public Instant getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public Instant getCreatedTo() {
+        return createdTo;
+    }
+
+    public String getPreviewPrefix() {
+        return previewPrefix;
+    }
+
+    public EntrySort getSort() {
+        return sort;
+    }
+
+}
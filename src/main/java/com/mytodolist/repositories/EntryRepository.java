@@ -1,24 +1,140 @@
 package com.mytodolist.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Pageable;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.mytodolist.dtos.EntryChangeDTO;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
 import com.mytodolist.models.Entry;
-import com.mytodolist.models.User;
 
-public interface EntryRepository extends JpaRepository<Entry, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface EntryRepository extends JpaRepository<Entry, Long>, EntryRepositoryCustom {
 
     List<Entry> findByUserId(Long userId); // finds all entries for a specific user id
 
-    List<Entry> findByUser(User user); // finds all entries for a specific user
+    // keyset pagination over the (user_id, created_at, id) index, projected straight into previews
+    @Query("SELECT new com.mytodolist.dtos.EntrySummaryDTO(e.id, e.preview, e.createdAt, e.position)"
+            + " FROM Entry e WHERE e.user.id = :userId ORDER BY e.createdAt ASC, e.id ASC")
+    List<EntrySummaryDTO> findFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT new com.mytodolist.dtos.EntrySummaryDTO(e.id, e.preview, e.createdAt, e.position)"
+            + " FROM Entry e WHERE e.user.id = :userId"
+            + " AND (e.createdAt > :createdAt OR (e.createdAt = :createdAt AND e.id > :id))"
+            + " ORDER BY e.createdAt ASC, e.id ASC")
+    List<EntrySummaryDTO> findPageByUserIdAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+            @Param("id") Long id, Limit limit);
+
+    // the same keyset pagination in manual order over (user_id, position); unkeyed rows come first, as everywhere
+    @Query("SELECT new com.mytodolist.dtos.EntrySummaryDTO(e.id, e.preview, e.createdAt, e.position)"
+            + " FROM Entry e WHERE e.user.id = :userId ORDER BY e.position ASC NULLS FIRST, e.id ASC")
+    List<EntrySummaryDTO> findFirstPositionPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT new com.mytodolist.dtos.EntrySummaryDTO(e.id, e.preview, e.createdAt, e.position)"
+            + " FROM Entry e WHERE e.user.id = :userId"
+            + " AND (e.position > :position OR (e.position = :position AND e.id > :id))"
+            + " ORDER BY e.position ASC NULLS FIRST, e.id ASC")
+    List<EntrySummaryDTO> findPositionPageByUserIdAfter(@Param("userId") Long userId,
+            @Param("position") String position, @Param("id") Long id, Limit limit);
+
+    // the cursor is still among the unkeyed rows: the rest of them, then every keyed row
+    @Query("SELECT new com.mytodolist.dtos.EntrySummaryDTO(e.id, e.preview, e.createdAt, e.position)"
+            + " FROM Entry e WHERE e.user.id = :userId"
+            + " AND ((e.position IS NULL AND e.id > :id) OR e.position IS NOT NULL)"
+            + " ORDER BY e.position ASC NULLS FIRST, e.id ASC")
+    List<EntrySummaryDTO> findPositionPageByUserIdAfterUnkeyed(@Param("userId") Long userId, @Param("id") Long id,
+            Limit limit);
+
+    @Query("SELECT new com.mytodolist.dtos.EntryResponseDTO(e.id, e.entryBody, e.legacyBody, u.username, e.createdAt,"
+            + " e.version)"
+            + " FROM Entry e JOIN e.user u WHERE u.id = :userId AND e.id IN :ids")
+    List<EntryResponseDTO> findResponsesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // export: read-only rows pulled from the cursor in fetch-size chunks. Must be consumed inside a transaction.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT e FROM Entry e JOIN FETCH e.user WHERE e.user.id = :userId ORDER BY e.createdAt ASC, e.id ASC")
+    Stream<Entry> streamByUserId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mytodolist.dtos.EntryResponseDTO(e.id, e.entryBody, e.legacyBody, u.username, e.createdAt,"
+            + " e.version)"
+            + " FROM Entry e JOIN e.user u WHERE u.id = :userId")
+    Stream<EntryResponseDTO> streamResponsesByUserId(@Param("userId") Long userId);
+
+    // delta sync: rows written after `since`, up to the list version read at the start of the request
+    @Query("SELECT new com.mytodolist.dtos.EntryChangeDTO(e.id, e.entryBody, e.legacyBody, e.position, e.createdAt,"
+            + " e.updatedAt, e.changeSeq)"
+            + " FROM Entry e WHERE e.user.id = :userId AND e.changeSeq > :since AND e.changeSeq <= :until"
+            + " ORDER BY e.changeSeq ASC")
+    List<EntryChangeDTO> findChanges(@Param("userId") Long userId, @Param("since") long since,
+            @Param("until") long until, Limit limit);
+
+    // entries written before change sequences existed all count as part of the first version
+    @Modifying
+    @Query("UPDATE Entry e SET e.changeSeq = :changeSeq WHERE e.user.id = :userId AND e.changeSeq IS NULL")
+    int stampMissingChangeSeq(@Param("userId") Long userId, @Param("changeSeq") long changeSeq);
+
+    // rows written before the preview column existed, oldest first
+    @Query("SELECT new com.mytodolist.dtos.EntryResponseDTO(e.id, e.entryBody, e.legacyBody, u.username, e.createdAt)"
+            + " FROM Entry e JOIN e.user u WHERE e.preview IS NULL ORDER BY e.id ASC")
+    List<EntryResponseDTO> findWithoutPreview(Limit limit);
+
+    // bulk update so the backfill leaves updatedAt and the change sequence alone
+    @Modifying
+    @Query("UPDATE Entry e SET e.preview = :preview WHERE e.id = :id")
+    int setPreview(@Param("id") Long id, @Param("preview") String preview);
+
+    // rows still stored in the uncompressed legacy column
+    @Query("SELECT new com.mytodolist.dtos.EntryResponseDTO(e.id, e.entryBody, e.legacyBody, u.username, e.createdAt)"
+            + " FROM Entry e JOIN e.user u WHERE e.entryBody IS NULL ORDER BY e.id ASC")
+    List<EntryResponseDTO> findUncompacted(Limit limit);
+
+    // bulk update so the re-compaction leaves updatedAt and the change sequence alone
+    @Modifying
+    @Query("UPDATE Entry e SET e.entryBody = :body, e.legacyBody = '' WHERE e.id = :id AND e.entryBody IS NULL")
+    int compactBody(@Param("id") Long id, @Param("body") String body);
+
+    // the end of the manual order: one seek on idx_entries_user_position
+    @Query("SELECT MAX(e.position) FROM Entry e WHERE e.user.id = :userId")
+    String findLastPosition(@Param("userId") Long userId);
+
+    // [id, position] of the owner's rows among ids
+    @Query("SELECT e.id, e.position FROM Entry e WHERE e.user.id = :userId AND e.id IN :ids")
+    List<Object[]> findPositions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // the keys next to a key in the manual order, leaving out the entry being moved; one seek on idx_entries_user_position
+    @Query("SELECT MIN(e.position) FROM Entry e WHERE e.user.id = :userId AND e.position > :position AND e.id <> :excludedId")
+    String findNextPosition(@Param("userId") Long userId, @Param("position") String position, @Param("excludedId") Long excludedId);
 
-    List<Entry> findByUserId(Long userId, Pageable pageable);
+    @Query("SELECT MAX(e.position) FROM Entry e WHERE e.user.id = :userId AND e.position < :position AND e.id <> :excludedId")
+    String findPreviousPosition(@Param("userId") Long userId, @Param("position") String position,
+            @Param("excludedId") Long excludedId);
 
-    List<Entry> findByUser(User user, Pageable pageable);
+    // rows without a key predate manual ordering and go first, in id order like the manual order pages
+    @Query("SELECT e.id FROM Entry e WHERE e.user.id = :userId ORDER BY e.position ASC NULLS FIRST, e.id ASC")
+    List<Long> findIdsInPositionOrder(@Param("userId") Long userId);
 
-    long countByUserId(Long userId);
+    // a reorder is this one row; not a content write, so version and updatedAt stay as they are,
+    // but the change sequence moves so delta sync hands out the new position
+    @Modifying
+    @Query("UPDATE Entry e SET e.position = :position, e.changeSeq = :changeSeq WHERE e.id = :id AND e.user.id = :userId")
+    int updatePosition(@Param("userId") Long userId, @Param("id") Long id, @Param("position") String position,
+            @Param("changeSeq") long changeSeq);
 
     // freebies:    .save(), .findById(), .findAll(), .deleteById(), .delete(), .count()
 }
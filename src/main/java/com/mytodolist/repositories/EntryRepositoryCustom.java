@@ -0,0 +1,44 @@
+package com.mytodolist.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+
+public interface EntryRepositoryCustom {
+
+    List<EntrySummaryDTO> findFiltered(Long userId, EntryFilter filter, int limit);
+
+    // one UPDATE for all rows: new bodies and change sequences keyed by entry id, restricted to the owner
+    int updateBodies(Long userId, Map<Long, String> bodies, Map<Long, Long> changeSeqs, Instant updatedAt);
+
+    // a single-entry write: changes the row only while it is still at the version the caller read
+    int updateBody(Long userId, Long id, String body, long changeSeq, Instant updatedAt, long version);
+
+    // one UPDATE for all rows: new position keys and change sequences keyed by entry id, restricted to the owner
+    int updatePositions(Long userId, Map<Long, String> positions, Map<Long, Long> changeSeqs);
+
+    // marks the owner's rows deleted; they stay restorable until purged
+    int softDeleteByUserIdAndIdIn(Long userId, Collection<Long> ids, Instant deletedAt);
+
+    int softDelete(Long userId, Long id, long version, Instant deletedAt);
+
+    // soft-deleted rows are hidden from JPQL by @SQLRestriction, so the methods below are native
+    Optional<EntryResponseDTO> findDeleted(Long userId, Long id);
+
+    int restore(Long userId, Long id, long changeSeq, Instant updatedAt);
+
+    List<Long> findPurgeable(Instant deletedBefore, int limit);
+
+    int purge(Collection<Long> ids);
+
+    // live and soft-deleted rows alike, for deleting a whole account one chunk at a time
+    List<Long> findAccountEntryIds(Long userId, int limit);
+
+    int deleteAccountEntries(Long userId, Collection<Long> ids);
+
+}
@@ -0,0 +1,289 @@
+package com.mytodolist.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.type.StandardBasicTypes;
+
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.EntryBodyConverter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Hand-built queries on entries that Spring Data cannot derive.
+ *
+ * findFiltered only ever produces predicates an index on entries can answer, none wrapping a column
+ * in a function: user_id equality, a half-open created_at range and a LIKE 'prefix%' on preview.
+ * Anything else belongs in a new index first.
+ */
+public class EntryRepositoryImpl implements EntryRepositoryCustom {
+
+    private static final char LIKE_ESCAPE = '\\';
+    private static final EntryBodyConverter BODY_CONVERTER = new EntryBodyConverter();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EntrySummaryDTO> findFiltered(Long userId, EntryFilter filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EntrySummaryDTO> query = cb.createQuery(EntrySummaryDTO.class);
+        Root<Entry> entry = query.from(Entry.class);
+        Path<Instant> createdAt = entry.get("createdAt");
+        Path<String> preview = entry.get("preview");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(entry.get("user").get("id"), userId));
+        if (filter.getCreatedFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            where.add(cb.lessThan(createdAt, filter.getCreatedTo()));
+        }
+        if (filter.getPreviewPrefix() != null) {
+            where.add(cb.like(preview, escapeLike(filter.getPreviewPrefix()) + "%", LIKE_ESCAPE));
+        }
+
+        query.select(cb.construct(EntrySummaryDTO.class, entry.get("id"), preview, createdAt, entry.get("position")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(orderBy(cb, entry, filter.getSort()));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /*
+     * Native because every column gets a CASE over the ids: the body is encoded here with the same
+     * converter the entity uses, the preview is derived the same way, entry_body is emptied as in
+     * Entry#setEntryBody and the @Version column is bumped as Hibernate would. Soft-deleted rows are left
+     * alone. Copies of these rows already in the persistence context are detached.
+     */
+    @Override
+    public int updateBodies(Long userId, Map<Long, String> bodies, Map<Long, Long> changeSeqs, Instant updatedAt) {
+        return updateBodies(userId, bodies, changeSeqs, updatedAt, null);
+    }
+
+    @Override
+    public int updateBody(Long userId, Long id, String body, long changeSeq, Instant updatedAt, long version) {
+        return updateBodies(userId, Map.of(id, body), Map.of(id, changeSeq), updatedAt, version);
+    }
+
+    private int updateBodies(Long userId, Map<Long, String> bodies, Map<Long, Long> changeSeqs, Instant updatedAt,
+            Long version) {
+        if (bodies.isEmpty()) {
+            return 0;
+        }
+        StringBuilder bodyCase = new StringBuilder("CASE id");
+        StringBuilder previewCase = new StringBuilder("CASE id");
+        StringBuilder seqCase = new StringBuilder("CASE id");
+        StringBuilder ids = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        List<Object> previews = new ArrayList<>();
+        List<Object> seqs = new ArrayList<>();
+        for (Map.Entry<Long, String> body : bodies.entrySet()) {
+            // typed per branch: an untyped CASE over ? parameters comes back as character data and mangles the bytes
+            bodyCase.append(" WHEN ").append(body.getKey()).append(" THEN CAST(? AS VARBINARY)");
+            previewCase.append(" WHEN ").append(body.getKey()).append(" THEN ?");
+            seqCase.append(" WHEN ").append(body.getKey()).append(" THEN ?");
+            ids.append(ids.length() == 0 ? "" : ", ").append(body.getKey());
+            parameters.add(BODY_CONVERTER.convertToDatabaseColumn(body.getValue()));
+            previews.add(Entry.previewOf(body.getValue()));
+            seqs.add(changeSeqs.get(body.getKey()));
+        }
+        parameters.addAll(previews);
+        parameters.addAll(seqs);
+        parameters.add(updatedAt);
+        parameters.add(userId);
+        if (version != null) {
+            parameters.add(version);
+        }
+
+        Query update = entityManager.createNativeQuery("UPDATE entries SET body_data = " + bodyCase + " END,"
+                + " entry_body = '', preview = " + previewCase + " END, change_seq = " + seqCase + " END,"
+                + " updated_at = ?, version = version + 1 WHERE user_id = ? AND id IN (" + ids + ") AND deleted_at IS NULL"
+                + (version != null ? " AND version = ?" : ""));
+        for (int i = 0; i < parameters.size(); i++) {
+            update.setParameter(i + 1, parameters.get(i));
+        }
+        int updated = update.executeUpdate();
+        detachManaged(bodies.keySet());
+        return updated;
+    }
+
+    @Override
+    public int updatePositions(Long userId, Map<Long, String> positions, Map<Long, Long> changeSeqs) {
+        if (positions.isEmpty()) {
+            return 0;
+        }
+        StringBuilder positionCase = new StringBuilder("CASE id");
+        StringBuilder seqCase = new StringBuilder("CASE id");
+        StringBuilder ids = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        List<Object> seqs = new ArrayList<>();
+        for (Map.Entry<Long, String> position : positions.entrySet()) {
+            positionCase.append(" WHEN ").append(position.getKey()).append(" THEN ?");
+            seqCase.append(" WHEN ").append(position.getKey()).append(" THEN ?");
+            ids.append(ids.length() == 0 ? "" : ", ").append(position.getKey());
+            parameters.add(position.getValue());
+            seqs.add(changeSeqs.get(position.getKey()));
+        }
+        parameters.addAll(seqs);
+        parameters.add(userId);
+
+        Query update = entityManager.createNativeQuery("UPDATE entries SET position = " + positionCase + " END,"
+                + " change_seq = " + seqCase + " END WHERE user_id = ? AND id IN (" + ids + ")");
+        for (int i = 0; i < parameters.size(); i++) {
+            update.setParameter(i + 1, parameters.get(i));
+        }
+        int updated = update.executeUpdate();
+        detachManaged(positions.keySet());
+        return updated;
+    }
+
+    @Override
+    public int softDeleteByUserIdAndIdIn(Long userId, Collection<Long> ids, Instant deletedAt) {
+        int deleted = entityManager.createQuery("UPDATE Entry e SET e.deletedAt = :deletedAt, e.version = e.version + 1"
+                + " WHERE e.user.id = :userId AND e.id IN :ids AND e.deletedAt IS NULL")
+                .setParameter("deletedAt", deletedAt)
+                .setParameter("userId", userId)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        detachManaged(ids);
+        return deleted;
+    }
+
+    @Override
+    public int softDelete(Long userId, Long id, long version, Instant deletedAt) {
+        int deleted = entityManager.createQuery("UPDATE Entry e SET e.deletedAt = :deletedAt, e.version = e.version + 1"
+                + " WHERE e.user.id = :userId AND e.id = :id AND e.version = :version AND e.deletedAt IS NULL")
+                .setParameter("deletedAt", deletedAt)
+                .setParameter("userId", userId)
+                .setParameter("id", id)
+                .setParameter("version", version)
+                .executeUpdate();
+        detachManaged(List.of(id));
+        return deleted;
+    }
+
+    @Override
+    public Optional<EntryResponseDTO> findDeleted(Long userId, Long id) {
+        List<?> rows = entityManager.createNativeQuery("SELECT e.id, e.body_data, e.entry_body, u.username, e.created_at,"
+                + " e.version FROM entries e JOIN users u ON u.id = e.user_id"
+                + " WHERE e.id = :id AND e.user_id = :userId AND e.deleted_at IS NOT NULL")
+                .setParameter("id", id)
+                .setParameter("userId", userId)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("body_data", StandardBasicTypes.BINARY)
+                .addScalar("entry_body", StandardBasicTypes.STRING)
+                .addScalar("username", StandardBasicTypes.STRING)
+                .addScalar("created_at", StandardBasicTypes.INSTANT)
+                .addScalar("version", StandardBasicTypes.LONG)
+                .getResultList();
+        return rows.stream().findFirst().map(row -> {
+            Object[] columns = (Object[]) row;
+            return new EntryResponseDTO((Long) columns[0], BODY_CONVERTER.convertToEntityAttribute((byte[]) columns[1]),
+                    (String) columns[2], (String) columns[3], (Instant) columns[4], (Long) columns[5]);
+        });
+    }
+
+    // a restored row is a fresh upsert for delta sync: new change sequence, new updatedAt, new version
+    @Override
+    public int restore(Long userId, Long id, long changeSeq, Instant updatedAt) {
+        return entityManager.createNativeQuery("UPDATE entries SET deleted_at = NULL, change_seq = :changeSeq,"
+                + " updated_at = :updatedAt, version = version + 1"
+                + " WHERE id = :id AND user_id = :userId AND deleted_at IS NOT NULL")
+                .setParameter("changeSeq", changeSeq)
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id)
+                .setParameter("userId", userId)
+                .executeUpdate();
+    }
+
+    // oldest deletions first, straight off idx_entries_deleted_at
+    @Override
+    public List<Long> findPurgeable(Instant deletedBefore, int limit) {
+        List<?> ids = entityManager.createNativeQuery("SELECT id FROM entries WHERE deleted_at < :deletedBefore"
+                + " ORDER BY deleted_at, id")
+                .setParameter("deletedBefore", deletedBefore)
+                .setMaxResults(limit)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createNativeQuery("DELETE FROM entries WHERE id IN (:ids) AND deleted_at IS NOT NULL")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findAccountEntryIds(Long userId, int limit) {
+        List<?> ids = entityManager.createNativeQuery("SELECT id FROM entries WHERE user_id = :userId ORDER BY id")
+                .setParameter("userId", userId)
+                .setMaxResults(limit)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    @Override
+    public int deleteAccountEntries(Long userId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = entityManager.createNativeQuery("DELETE FROM entries WHERE user_id = :userId AND id IN (:ids)")
+                .setParameter("userId", userId)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        detachManaged(ids);
+        return deleted;
+    }
+
+    /*
+     * Bulk statements bypass the persistence context; drop any stale copy without touching anything else
+     * in it. getReference hands back the managed copy if there is one and an unloaded proxy otherwise, so
+     * the database is not read either way.
+     */
+    private void detachManaged(Collection<Long> ids) {
+        for (Long id : ids) {
+            entityManager.detach(entityManager.getReference(Entry.class, id));
+        }
+    }
+
+    // id breaks ties so the order is stable, matching the trailing column of each index
+    private static List<Order> orderBy(CriteriaBuilder cb, Root<Entry> entry, EntrySort sort) {
+        Path<Long> id = entry.get("id");
+        return switch (sort) {
+            case CREATED_ASC -> List.of(cb.asc(entry.get("createdAt")), cb.asc(id));
+            case CREATED_DESC -> List.of(cb.desc(entry.get("createdAt")), cb.desc(id));
+            case UPDATED_DESC -> List.of(cb.desc(entry.get("updatedAt")), cb.desc(id));
+            case PREVIEW_ASC -> List.of(cb.asc(entry.get("preview")), cb.asc(id));
+            // unkeyed rows first, as in EntryRepository#findIdsInPositionOrder and the manual order pages
+            case POSITION_ASC -> List.of(((HibernateCriteriaBuilder) cb).asc(entry.get("position"), true), cb.asc(id));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
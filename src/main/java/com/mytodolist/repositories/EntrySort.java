@@ -0,0 +1,33 @@
+package com.mytodolist.repositories;
+
+/**
+ * Orders supported by EntryRepository#findFiltered. Each one is the trailing column of a
+ * (user_id, ...) index on entries, so the sort is read off the index instead of done in memory.
+ */
+public enum EntrySort {
+
+    CREATED_ASC("createdAt"),
+    CREATED_DESC("-createdAt"),
+    UPDATED_DESC("-updatedAt"),
+    PREVIEW_ASC("preview"),
+    POSITION_ASC("position"); // the manual order
+
+    private final String param;
+
+    EntrySort(String param) {
+        this.param = param;
+    }
+
+    public static EntrySort fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return CREATED_ASC;
+        }
+        for (EntrySort sort : values()) {
+            if (sort.param.equals(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + param);
+    }
+
+}
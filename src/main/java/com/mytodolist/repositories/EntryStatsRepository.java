@@ -0,0 +1,31 @@
+package com.mytodolist.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.mytodolist.models.EntryStats;
+
+import jakarta.persistence.LockModeType;
+
+public interface EntryStatsRepository extends JpaRepository<EntryStats, Long> {
+
+    // serializes writes of the same user so counters and quota checks stay exact
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EntryStats s WHERE s.userId = :userId")
+    Optional<EntryStats> findForUpdate(@Param("userId") Long userId);
+
+    @Query("SELECT s.userId FROM EntryStats s WHERE s.positionRebalanceRequestedAt IS NOT NULL"
+            + " ORDER BY s.positionRebalanceRequestedAt ASC")
+    List<Long> findPositionRebalanceUserIds(Limit limit);
+
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS (SELECT s.userId FROM EntryStats s WHERE s.userId = u.id)"
+            + " ORDER BY u.id ASC")
+    List<Long> findUserIdsWithoutStats(Limit limit);
+
+}
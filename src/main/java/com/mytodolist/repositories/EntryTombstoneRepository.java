@@ -0,0 +1,33 @@
+package com.mytodolist.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.mytodolist.models.EntryTombstone;
+
+public interface EntryTombstoneRepository extends JpaRepository<EntryTombstone, Long> {
+
+    @Query("SELECT t FROM EntryTombstone t WHERE t.userId = :userId"
+            + " AND t.changeSeq > :since AND t.changeSeq <= :until ORDER BY t.changeSeq ASC")
+    List<EntryTombstone> findChanges(@Param("userId") Long userId, @Param("since") long since,
+            @Param("until") long until, Limit limit);
+
+    // a JPQL delete: tombstones always report isNew(), which makes the inherited delete methods no-ops
+    @Modifying
+    @Query("DELETE FROM EntryTombstone t WHERE t.entryId = :entryId AND t.userId = :userId")
+    int deleteByEntryIdAndUserId(@Param("entryId") Long entryId, @Param("userId") Long userId);
+
+    @Query("SELECT t.entryId FROM EntryTombstone t WHERE t.userId = :userId ORDER BY t.entryId ASC")
+    List<Long> findEntryIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM EntryTombstone t WHERE t.userId = :userId AND t.entryId IN :entryIds")
+    int deleteByUserIdAndEntryIdIn(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+}
@@ -0,0 +1,18 @@
+package com.mytodolist.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.mytodolist.models.SearchIndexStats;
+
+public interface SearchIndexStatsRepository extends JpaRepository<SearchIndexStats, Long> {
+
+    // returns 0 when the user's index has not been built yet
+    @Modifying
+    @Query("UPDATE SearchIndexStats s SET s.documentCount = s.documentCount + :documents,"
+            + " s.totalLength = s.totalLength + :length WHERE s.userId = :userId")
+    int adjust(@Param("userId") Long userId, @Param("documents") long documents, @Param("length") long length);
+
+}
@@ -0,0 +1,38 @@
+package com.mytodolist.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.mytodolist.models.SearchPosting;
+
+public interface SearchPostingRepository extends JpaRepository<SearchPosting, SearchPosting.Key> {
+
+    List<SearchPosting> findByUserIdAndTermIn(Long userId, Collection<String> terms);
+
+    // [userId, documentLength] of an indexed entry, read without loading any posting into the persistence context
+    @Query("SELECT p.userId, MAX(p.documentLength) FROM SearchPosting p WHERE p.entryId = :entryId GROUP BY p.userId")
+    List<Object[]> findDocumentLength(@Param("entryId") Long entryId);
+
+    @Modifying
+    @Query("DELETE FROM SearchPosting p WHERE p.entryId = :entryId")
+    int deleteByEntryId(@Param("entryId") Long entryId);
+
+    // one row per indexed entry: [entryId, documentLength]
+    @Query("SELECT p.entryId, MAX(p.documentLength) FROM SearchPosting p"
+            + " WHERE p.userId = :userId AND p.entryId IN :entryIds GROUP BY p.entryId")
+    List<Object[]> findDocumentLengths(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+    @Modifying
+    @Query("DELETE FROM SearchPosting p WHERE p.userId = :userId AND p.entryId IN :entryIds")
+    int deleteByUserIdAndEntryIdIn(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+    @Modifying
+    @Query("DELETE FROM SearchPosting p WHERE p.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+}
@@ -3,6 +3,9 @@ package com.mytodolist.repositories;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.mytodolist.models.User;
 
@@ -10,5 +13,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // a bulk delete, so the cascade on entries is not walked; the account's rows are gone by then
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :userId")
+    int deleteRowById(@Param("userId") Long userId);
+
     // freebies:    .save(), .findById(), .findAll(), .deleteById(), .delete(), .count()
 }
@@ -121,7 +121,7 @@ public class AuthenticationController {
         }
         RefreshToken existingToken = refreshTokenService.findByToken(requestTokenString); // get the refresh token object
         User user = existingToken.getUser();
-        String newAccessToken = jwtUtilityService.generateToken(user); // make a new access token
+        String newAccessToken = jwtUtilityService.generateToken(user, roleService.getUserRoles(user.getId())); // make a new access token, with the roles as they are now
 
         RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user); // begin making new refresh token object. This constructor gives Id and create Time
 
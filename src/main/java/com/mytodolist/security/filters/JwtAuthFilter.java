@@ -7,14 +7,14 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.mytodolist.exceptions.UnauthorizedAccessException;
 import com.mytodolist.security.config.JwtAuthenticationEntryPoint;
+import com.mytodolist.security.services.DisabledAccounts;
 import com.mytodolist.security.services.JwtUtilityService;
-import com.mytodolist.security.userdetails.TodoUserDetailsService;
+import com.mytodolist.security.userdetails.JwtPrincipal;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -27,12 +27,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JwtAuthFilter.class);
 
     private final JwtUtilityService jwtService;
-    private final TodoUserDetailsService todoUserDetailsService;
+    private final DisabledAccounts disabledAccounts;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
 
-    public JwtAuthFilter(JwtUtilityService jwtService, TodoUserDetailsService todoUserDetailsService, JwtAuthenticationEntryPoint authenticationEntryPoint) {
+    public JwtAuthFilter(JwtUtilityService jwtService, DisabledAccounts disabledAccounts, JwtAuthenticationEntryPoint authenticationEntryPoint) {
         this.jwtService = jwtService;
-        this.todoUserDetailsService = todoUserDetailsService;
+        this.disabledAccounts = disabledAccounts;
         this.authenticationEntryPoint = authenticationEntryPoint;
     }
 
@@ -53,16 +53,22 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 throw new UnauthorizedAccessException("Invalid or expired JWT token");
 
             }
-            String username = jwtService.getUsernameFromToken(jwt);
-            log.debug("Username from token: {}", username);
+            // the principal comes from the verified claims alone: no user or role lookup per request
+            JwtPrincipal principal = jwtService.getPrincipalFromToken(jwt);
+            if (principal == null) {
+                throw new UnauthorizedAccessException("Invalid or expired JWT token");
+            }
+            log.debug("Username from token: {}", principal.getUsername());
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = todoUserDetailsService.loadUserByUsername(username);
+                if (disabledAccounts.isDisabled(principal.getUserId())) { // queued for deletion: tokens issued before that stop working at once
+                    throw new UnauthorizedAccessException("Account is disabled");
+                }
                 Authentication authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.debug("User {} authenticated successfully", username);
+                log.debug("User {} authenticated successfully", principal.getUsername());
 
             }
             filterChain.doFilter(request, response);
@@ -29,7 +29,7 @@ public class UsernamePasswordAuthenticationProvider implements AuthenticationPro
 
         UserDetails userDetails = todoUserDetailsService.loadUserByUsername(username);
 
-        if (passwordEncoder.matches(password, userDetails.getPassword())) {
+        if (userDetails.isEnabled() && passwordEncoder.matches(password, userDetails.getPassword())) {
             return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         } else {
             throw new BadCredentialsException("Invalid username or password");
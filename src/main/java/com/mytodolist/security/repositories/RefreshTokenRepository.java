@@ -25,6 +25,11 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
 
     void deleteByUserId(Long userId);
 
+    // revoking every session of an account in one statement
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
+    int revokeByUserId(@Param("userId") Long userId);
+
     //Cleaning up expired tokens
     @Modifying
     @Query("DELETE from RefreshToken rt where rt.expiresAt < :now")
@@ -0,0 +1,39 @@
+package com.mytodolist.security.services;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.repositories.AccountDeletionRepository;
+
+/**
+ * Accounts queued for deletion, checked by JwtAuthFilter on every request instead of loading the user.
+ * Every pending deletion is marked when the bean is created, before the first request is served, so a
+ * restart does not reopen accounts whose access tokens are still live. After that, marks are written when
+ * a deletion is requested and again, for every pending deletion, by each run of the deletion worker,
+ * which is how other instances pick up deletions requested elsewhere.
+ */
+@Component
+public class DisabledAccounts {
+
+    private final Cache cache;
+
+    public DisabledAccounts(CacheManager cacheManager, AccountDeletionRepository accountDeletionRepository) {
+        Cache cache = cacheManager.getCache(CacheConfig.DISABLED_ACCOUNTS);
+        // written at once rather than at commit: the account has to stop working while the request is still open
+        this.cache = cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+        accountDeletionRepository.findPendingUserIds(Limit.unlimited()).forEach(this::disable);
+    }
+
+    public void disable(Long userId) {
+        cache.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isDisabled(Long userId) {
+        return cache.get(userId) != null;
+    }
+
+}
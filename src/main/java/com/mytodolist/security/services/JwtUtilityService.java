@@ -2,7 +2,9 @@ package com.mytodolist.security.services;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import javax.crypto.SecretKey; // Add this import
 
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import com.mytodolist.models.User;
 import com.mytodolist.security.config.JwtConfig;
+import com.mytodolist.security.userdetails.JwtPrincipal;
 import com.mytodolist.security.userdetails.TodoUserDetails;
 
 import io.jsonwebtoken.Claims;
@@ -22,6 +25,9 @@ import io.jsonwebtoken.security.SignatureException;
 @Service
 public class JwtUtilityService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+
     private final JwtConfig jwtConfig;
     private final SecretKey signingKey;
     private final Clock clock;
@@ -33,21 +39,35 @@ public class JwtUtilityService {
         this.clock = clock;
     }
 
-    public String generateToken(User user) {
+    // the id and roles travel in the token so that authenticating a request needs no database lookup
+    public String generateToken(User user, Collection<String> roles) {
         String username = user.getUsername();
         Instant now = Instant.now(clock);
         Instant expiry = now.plusSeconds(jwtConfig.getExpiration() / 1000);
 
         return Jwts.builder()
                 .subject(username)
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
                 .signWith(signingKey)
                 .compact();
     }
 
     public String generateToken(TodoUserDetails todoUserDetails) {
-        User user = todoUserDetails.getUser();
-        return generateToken(user);
+        return generateToken(todoUserDetails.getUser(), todoUserDetails.getRoles());
+    }
+
+    // null for a token from before the claims were added; its holder has to refresh it
+    public JwtPrincipal getPrincipalFromToken(String token) {
+        Claims claims = getClaims(token);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(userId.longValue(), claims.getSubject(), roles.stream().map(String::valueOf).toList());
     }
 
     public String getUsernameFromToken(String token) {
@@ -0,0 +1,62 @@
+package com.mytodolist.security.userdetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.mytodolist.models.User;
+
+/**
+ * The caller of an API request, taken from the claims of a verified access token. Nothing here is read
+ * from the database, so it is only as fresh as the token: role changes show after the next refresh.
+ */
+public final class JwtPrincipal implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String username;
+    private final Set<String> roles;
+
+    public JwtPrincipal(Long userId, String username, Collection<String> roles) {
+        this.userId = userId;
+        this.username = username;
+        this.roles = Set.copyOf(roles);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+    }
+
+    // an unloaded stand-in for services that take a User: it carries the id for foreign keys and the username
+    public User toUser() {
+        User user = new User(username);
+        user.setId(userId);
+        return user;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtPrincipal[userId=" + userId + ", username=" + username + ", roles=" + roles + "]";
+    }
+
+}
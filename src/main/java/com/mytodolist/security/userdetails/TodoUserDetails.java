@@ -71,7 +71,7 @@ public class TodoUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return !user.isDisabled();
     }
 
 }
@@ -0,0 +1,162 @@
+package com.mytodolist.services;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.exceptions.UserNotFoundException;
+import com.mytodolist.models.AccountDeletion;
+import com.mytodolist.models.User;
+import com.mytodolist.repositories.AccountDeletionRepository;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntryStatsRepository;
+import com.mytodolist.repositories.EntryTombstoneRepository;
+import com.mytodolist.repositories.SearchIndexStatsRepository;
+import com.mytodolist.repositories.SearchPostingRepository;
+import com.mytodolist.repositories.UserRepository;
+import com.mytodolist.security.services.DisabledAccounts;
+import com.mytodolist.security.repositories.RefreshTokenRepository;
+import com.mytodolist.security.repositories.RoleRepository;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Deletes accounts in two steps. requestDeletion disables the account and revokes its sessions in one
+ * short transaction; AccountDeletionWorker then calls deleteNextChunk until it reports the account gone.
+ * Every chunk is one transaction that removes at most batchSize rows with set-based statements and
+ * records its progress, so no account is ever loaded into memory or deleted in one long transaction.
+ */
+@Service
+@Transactional
+public class AccountDeletionService {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(AccountDeletionService.class);
+
+    private final AccountDeletionRepository accountDeletionRepository;
+    private final UserRepository userRepository;
+    private final EntryRepository entryRepository;
+    private final EntryTombstoneRepository entryTombstoneRepository;
+    private final SearchPostingRepository searchPostingRepository;
+    private final EntryStatsRepository entryStatsRepository;
+    private final SearchIndexStatsRepository searchIndexStatsRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RoleRepository roleRepository;
+    private final CacheManager cacheManager;
+    private final DisabledAccounts disabledAccounts;
+
+    public AccountDeletionService(AccountDeletionRepository accountDeletionRepository, UserRepository userRepository,
+            EntryRepository entryRepository, EntryTombstoneRepository entryTombstoneRepository,
+            SearchPostingRepository searchPostingRepository, EntryStatsRepository entryStatsRepository,
+            SearchIndexStatsRepository searchIndexStatsRepository, RefreshTokenRepository refreshTokenRepository,
+            RoleRepository roleRepository, CacheManager cacheManager, DisabledAccounts disabledAccounts) {
+        this.accountDeletionRepository = accountDeletionRepository;
+        this.userRepository = userRepository;
+        this.entryRepository = entryRepository;
+        this.entryTombstoneRepository = entryTombstoneRepository;
+        this.searchPostingRepository = searchPostingRepository;
+        this.entryStatsRepository = entryStatsRepository;
+        this.searchIndexStatsRepository = searchIndexStatsRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.roleRepository = roleRepository;
+        this.cacheManager = cacheManager;
+        this.disabledAccounts = disabledAccounts;
+    }
+
+    // idempotent: asking again while the deletion is pending changes nothing
+    public void requestDeletion(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " does not exist"));
+        if (user.isDisabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        user.setDeletionRequestedAt(now);
+        accountDeletionRepository.save(new AccountDeletion(userId, now));
+        refreshTokenRepository.revokeByUserId(userId);
+        evictPages(userId);
+        disabledAccounts.disable(userId); // access tokens are not looked up, so the filter checks this instead
+        logger.info("Account {} disabled and queued for deletion", userId);
+    }
+
+    /*
+     * Re-marks every pending account, which is how other instances learn of a deletion requested elsewhere,
+     * however many are queued ahead of it; only the work list is capped at limit.
+     */
+    public List<Long> findPending(int limit) {
+        List<Long> pending = accountDeletionRepository.findPendingUserIds(Limit.unlimited());
+        pending.forEach(disabledAccounts::disable);
+        return pending.subList(0, Math.min(limit, pending.size()));
+    }
+
+    // removes the next chunk of the account; true once nothing is left of it
+    public boolean deleteNextChunk(Long userId, int batchSize) {
+        AccountDeletion deletion = accountDeletionRepository.findById(userId).orElse(null);
+        if (deletion == null) {
+            return true;
+        }
+        Instant now = Instant.now();
+        switch (deletion.getPhase()) {
+            case ENTRIES -> {
+                List<Long> ids = entryRepository.findAccountEntryIds(userId, batchSize);
+                if (ids.isEmpty()) {
+                    deletion.advance(AccountDeletion.Phase.TOMBSTONES, now);
+                } else {
+                    searchPostingRepository.deleteByUserIdAndEntryIdIn(userId, ids);
+                    deletion.recordRemoved(entryRepository.deleteAccountEntries(userId, ids), now);
+                }
+            }
+            case TOMBSTONES -> {
+                List<Long> ids = entryTombstoneRepository.findEntryIdsByUserId(userId, Limit.of(batchSize));
+                if (ids.isEmpty()) {
+                    deletion.advance(AccountDeletion.Phase.REFRESH_TOKENS, now);
+                } else {
+                    deletion.recordRemoved(entryTombstoneRepository.deleteByUserIdAndEntryIdIn(userId, ids), now);
+                }
+            }
+            case REFRESH_TOKENS -> {
+                // login keeps one token per account, so this is a handful of rows; it catches a login that raced the request
+                deletion.recordRemoved(refreshTokenRepository.revokeByUserId(userId), now);
+                deletion.advance(AccountDeletion.Phase.ACCOUNT, now);
+            }
+            case ACCOUNT -> {
+                /*
+                 * Entry writes that were already in flight when the account was disabled (an import chunk, a
+                 * queued write-behind create) hold the stats row lock until they commit. Taking it here waits
+                 * them out, and any rows they left behind send the account back to the phase that removes them.
+                 */
+                entryStatsRepository.findForUpdate(userId);
+                if (!entryRepository.findAccountEntryIds(userId, 1).isEmpty()) {
+                    deletion.advance(AccountDeletion.Phase.ENTRIES, now);
+                    return false;
+                }
+                if (!entryTombstoneRepository.findEntryIdsByUserId(userId, Limit.of(1)).isEmpty()) {
+                    deletion.advance(AccountDeletion.Phase.TOMBSTONES, now);
+                    return false;
+                }
+                // one row each, apart from the few role links
+                roleRepository.deleteLinksByUserId(userId);
+                entryStatsRepository.deleteById(userId);
+                searchIndexStatsRepository.deleteById(userId);
+                userRepository.deleteRowById(userId);
+                accountDeletionRepository.delete(deletion);
+                logger.info("Account {} deleted, {} rows removed", userId, deletion.getRemovedRows());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictPages(Long userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.ENCODED_ENTRY_PAGES);
+        if (cache != null) {
+            cache.evict(userId);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.mytodolist.services;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.config.AccountConfig;
+
+/**
+ * Drives pending account deletions forward in the background, oldest request first. Each chunk commits on
+ * its own, so a run that dies halfway, or a crash, simply resumes from the recorded phase on the next run.
+ * A capped number of chunks per run keeps one huge account from monopolizing the database.
+ */
+@Component
+public class AccountDeletionWorker {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(AccountDeletionWorker.class);
+
+    private final AccountDeletionService accountDeletionService;
+    private final AccountConfig accountConfig;
+
+    public AccountDeletionWorker(AccountDeletionService accountDeletionService, AccountConfig accountConfig) {
+        this.accountDeletionService = accountDeletionService;
+        this.accountConfig = accountConfig;
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.deletion-delay-millis:5000}")
+    public void run() {
+        int batches = 0;
+        for (Long userId : accountDeletionService.findPending(accountConfig.getDeletionMaxAccountsPerRun())) {
+            try {
+                boolean done = false;
+                while (!done && batches < accountConfig.getDeletionMaxBatchesPerRun()) {
+                    done = accountDeletionService.deleteNextChunk(userId, accountConfig.getDeletionBatchSize());
+                    batches++;
+                }
+            } catch (RuntimeException ex) {
+                // the failed chunk rolled back on its own; the next run retries it
+                logger.error("Deleting account {} failed, will retry", userId, ex);
+            }
+            if (batches >= accountConfig.getDeletionMaxBatchesPerRun()) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.mytodolist.services;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background move of bodies written before compression existed into the compressed column.
+ * Reads fall back to the legacy column until a row has been moved, so this can take its time:
+ * each run handles a bounded number of short batches and the next run picks up where it left off.
+ */
+@Component
+public class EntryBodyRecompaction {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryBodyRecompaction.class);
+    private static final int BATCH_SIZE = 200;
+    private static final int BATCHES_PER_RUN = 50;
+
+    private final EntryService entryService;
+
+    public EntryBodyRecompaction(EntryService entryService) {
+        this.entryService = entryService;
+    }
+
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "PT5M")
+    public void run() {
+        long moved = 0;
+        for (int i = 0; i < BATCHES_PER_RUN; i++) {
+            int batch = entryService.compactBodies(BATCH_SIZE);
+            moved += batch;
+            if (batch < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            logger.info("Compacted {} entry bodies", moved);
+        }
+    }
+
+}
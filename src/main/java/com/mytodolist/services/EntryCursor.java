@@ -0,0 +1,50 @@
+package com.mytodolist.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last entry on a page, handed to clients as an opaque string.
+ * The next page starts strictly after (createdAt, id), so it can be served
+ * straight off the (user_id, created_at, id) index no matter how deep it is.
+ */
+public final class EntryCursor {
+
+    private final Instant createdAt;
+    private final Long id;
+
+    public EntryCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EntryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new EntryCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException ex) { // NumberFormatException is an IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+}
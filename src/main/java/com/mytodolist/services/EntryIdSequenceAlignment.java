@@ -0,0 +1,51 @@
+package com.mytodolist.services;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.models.Entry;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Entry ids used to come from an identity column. On a database created back then, entries_seq starts
+ * below ids that already exist; this moves it past them once. A sequence that is already ahead is left
+ * alone, so running instances holding a block of ids are never affected. It runs once all beans are
+ * ready and before the web server takes requests, so no insert can draw an id from the old range.
+ */
+@Component
+public class EntryIdSequenceAlignment implements SmartInitializingSingleton {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryIdSequenceAlignment.class);
+    private static final String SEQUENCE = "entries_seq";
+
+    private final EntityManager entityManager;
+
+    public EntryIdSequenceAlignment(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        long maxId = ((Number) entityManager.createQuery("SELECT COALESCE(MAX(e.id), 0) FROM Entry e").getSingleResult()).longValue();
+        if (maxId == 0) {
+            return;
+        }
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        String nextValue = dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE);
+        long next = ((Number) entityManager.createNativeQuery(nextValue).getSingleResult()).longValue();
+        // the pooled optimizer hands out (value - allocationSize, value], so the value must clear maxId by a full block
+        if (next - Entry.ID_ALLOCATION_SIZE < maxId) {
+            long restart = maxId + Entry.ID_ALLOCATION_SIZE;
+            entityManager.createNativeQuery("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + restart).executeUpdate();
+            logger.info("Moved {} past existing entry ids, restarting at {}", SEQUENCE, restart);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.mytodolist.services;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.exceptions.IdempotencyKeyReusedException;
+
+/**
+ * Remembers the response to each create sent with an Idempotency-Key, per user, so a retried request gets
+ * the original entry back instead of inserting a duplicate. The first request claims the key with an
+ * atomic putIfAbsent; duplicates arriving while it is still running wait for its result. A create that
+ * fails releases the key so the client can retry it.
+ */
+@Service
+public class EntryIdempotency {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final CacheManager cacheManager;
+
+    public EntryIdempotency(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public EntryResponseDTO create(Long userId, String key, String body, Supplier<EntryResponseDTO> create) {
+        if (key == null) {
+            return create.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.IDEMPOTENT_CREATES);
+        if (cache == null) {
+            return create.get();
+        }
+
+        String cacheKey = userId + ":" + key;
+        PendingCreate mine = new PendingCreate(body);
+        Cache.ValueWrapper existing = cache.putIfAbsent(cacheKey, mine);
+        if (existing != null && existing.get() instanceof PendingCreate first) {
+            if (!Objects.equals(first.body, body)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            try {
+                return first.response.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+
+        try {
+            EntryResponseDTO response = create.get();
+            mine.response.complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            cache.evictIfPresent(cacheKey);
+            mine.response.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static final class PendingCreate {
+
+        private final String body;
+        private final CompletableFuture<EntryResponseDTO> response = new CompletableFuture<>();
+
+        private PendingCreate(String body) {
+            this.body = body;
+        }
+
+    }
+
+}
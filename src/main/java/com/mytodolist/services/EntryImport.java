@@ -0,0 +1,356 @@
+package com.mytodolist.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryDTO;
+import com.mytodolist.dtos.EntryImportResultDTO;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.models.User;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports entries from an NDJSON or CSV upload without ever holding more than two chunks of it. The
+ * request thread reads rows into a chunk of entries.max-batch-create; a full chunk is handed to a writer
+ * thread that validates its rows in parallel and commits it with one batched insert while the next chunk
+ * is read. Reading
+ * waits for the previous commit before handing over another chunk, so a slow database slows the upload
+ * down instead of piling rows up in memory. Bad rows are reported by line and skipped; the import stops
+ * at the first chunk over the entry quota. Both formats take what /export produces.
+ */
+@Service
+public class EntryImport {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryImport.class);
+
+    // comfortably above a 5000 character body with every character JSON-escaped
+    public static final int MAX_ROW_CHARS = 64 * 1024;
+
+    private final EntryService entryService;
+    private final EntryConfig entryConfig;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+    private final ExecutorService writers;
+
+    public EntryImport(EntryService entryService, EntryConfig entryConfig, ObjectMapper objectMapper, Validator validator) {
+        this.entryService = entryService;
+        this.entryConfig = entryConfig;
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(EntryDTO.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(entryConfig.getImportWriterThreads(),
+                task -> new Thread(task, "entry-import-" + threads.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        writers.shutdown();
+    }
+
+    public EntryImportResultDTO importEntries(User user, InputStream body, String format) throws IOException {
+        Reader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Rows rows = switch (format.toLowerCase()) {
+            case "ndjson" ->
+                new NdjsonRows(in, ndjsonReader);
+            case "csv" ->
+                new CsvRows(in);
+            default ->
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+        };
+
+        long started = System.nanoTime();
+        int batchSize = entryConfig.getMaxBatchCreate();
+        Progress progress = new Progress(entryConfig.getImportMaxErrors());
+        List<Row> chunk = new ArrayList<>(batchSize);
+        CompletableFuture<Void> committing = CompletableFuture.completedFuture(null);
+        Row row;
+        while (!progress.stopped && (row = rows.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                await(committing); // at most one chunk in flight: this is the backpressure
+                if (progress.stopped) {
+                    break;
+                }
+                List<Row> full = chunk;
+                committing = CompletableFuture.runAsync(() -> write(user, full, progress), writers);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        await(committing);
+        if (!chunk.isEmpty() && !progress.stopped) {
+            write(user, chunk, progress);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Imported {} of {} rows for user {} in {} ms", progress.imported, progress.rows, user.getUsername(), elapsedMillis);
+        return new EntryImportResultDTO(progress.rows, progress.imported, progress.failed, progress.errors, elapsedMillis);
+    }
+
+    // runs on a writer thread, except for the last chunk; the join in await orders it with the reads of progress
+    private void write(User user, List<Row> chunk, Progress progress) {
+        // the validator is thread-safe and rows are independent, so only the counting below is sequential
+        List<String> errors = chunk.parallelStream()
+                .map(row -> row.error != null ? row.error : validate(row.body))
+                .toList();
+        List<String> bodies = new ArrayList<>(chunk.size());
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            progress.rows++;
+            String error = errors.get(i);
+            if (error != null) {
+                progress.fail(row.line, error);
+            } else {
+                bodies.add(row.body);
+                accepted.add(row);
+            }
+        }
+        if (bodies.isEmpty()) {
+            return;
+        }
+        try {
+            entryService.createEntries(bodies, user);
+            progress.imported += bodies.size();
+        } catch (EntryQuotaExceededException ex) {
+            accepted.forEach(row -> progress.fail(row.line, ex.getMessage()));
+            progress.stopped = true;
+        }
+    }
+
+    private String validate(String body) {
+        if (body == null) {
+            return "entryBody is required";
+        }
+        Set<ConstraintViolation<EntryDTO>> violations = validator.validate(new EntryDTO(body));
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static void await(CompletableFuture<Void> committing) {
+        try {
+            committing.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<EntryImportResultDTO.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+        private volatile boolean stopped;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new EntryImportResultDTO.RowError(line, message));
+            }
+        }
+
+    }
+
+    private static final class Row {
+
+        private final long line;
+        private final String body;
+        private final String error; // set when the row could not even be parsed
+
+        private Row(long line, String body, String error) {
+            this.line = line;
+            this.body = body;
+            this.error = error;
+        }
+
+    }
+
+    private abstract static class Rows {
+
+        protected final Reader in;
+        protected long line = 1;
+
+        protected Rows(Reader in) {
+            this.in = in;
+        }
+
+        // the next row, or null at the end of the upload
+        abstract Row next() throws IOException;
+
+    }
+
+    // one JSON object per line; blank lines are skipped
+    private static final class NdjsonRows extends Rows {
+
+        private final ObjectReader reader;
+        private final StringBuilder text = new StringBuilder();
+
+        private NdjsonRows(Reader in, ObjectReader reader) {
+            super(in);
+            this.reader = reader;
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (true) {
+                long start = line;
+                text.setLength(0);
+                boolean tooLong = false;
+                int c = in.read();
+                if (c == -1) {
+                    return null;
+                }
+                while (c != -1 && c != '\n') {
+                    if (text.length() < MAX_ROW_CHARS) {
+                        text.append((char) c);
+                    } else {
+                        tooLong = true; // keep reading to the end of the line, without keeping it
+                    }
+                    c = in.read();
+                }
+                line++;
+                if (tooLong) {
+                    return new Row(start, null, "Row exceeds " + MAX_ROW_CHARS + " characters");
+                }
+                if (text.toString().isBlank()) {
+                    continue;
+                }
+                try {
+                    EntryDTO entry = reader.readValue(text.toString());
+                    return new Row(start, entry == null ? null : entry.getEntryBody(), null);
+                } catch (JsonProcessingException ex) {
+                    return new Row(start, null, "Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+        }
+
+    }
+
+    // RFC 4180: a header row naming an entryBody column, quoted fields may span lines
+    private static final class CsvRows extends Rows {
+
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private final int bodyColumn;
+        private boolean tooLong;
+
+        private CsvRows(Reader in) throws IOException {
+            super(in);
+            int column = -1;
+            if (readRecord()) {
+                for (int i = 0; i < fields.size(); i++) {
+                    if (fields.get(i).strip().replace("\uFEFF", "").equalsIgnoreCase("entryBody")) {
+                        column = i;
+                    }
+                }
+            }
+            if (column < 0) {
+                throw new IllegalArgumentException("CSV header must name an entryBody column");
+            }
+            this.bodyColumn = column;
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (true) {
+                long start = line;
+                if (!readRecord()) {
+                    return null;
+                }
+                if (tooLong) {
+                    return new Row(start, null, "Row exceeds " + MAX_ROW_CHARS + " characters");
+                }
+                if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                    continue; // blank line
+                }
+                if (bodyColumn >= fields.size()) {
+                    return new Row(start, null, "Row has no entryBody column");
+                }
+                return new Row(start, fields.get(bodyColumn), null);
+            }
+        }
+
+        // fills fields with the next record, false at the end of the upload
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            tooLong = false;
+            int length = 0;
+            boolean quoted = false;
+            int c = in.read();
+            if (c == -1) {
+                return false;
+            }
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next != '"') { // a closing quote; a doubled one is a literal quote
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                    c = in.read();
+                    continue;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    c = in.read();
+                    continue;
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    c = in.read();
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                if (++length <= MAX_ROW_CHARS) {
+                    field.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = in.read();
+            }
+            line++;
+            fields.add(field.toString());
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.mytodolist.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.dtos.EntryPageDTO;
+import com.mytodolist.services.EntryService.FirstPage;
+
+/**
+ * Holds each user's first entry page already serialized, as UTF-8 JSON and gzipped JSON, tagged with the
+ * list version it was read at. Later pages are not kept, so they are only serialized and compressed as the
+ * request asks. A write bumps the version, so a stale page is simply rebuilt on the next
+ * read; there is nothing to invalidate and only one page per user is ever kept.
+ */
+@Service
+public class EntryPageResponseCache {
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    public EntryPageResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /*
+     * listVersion is the version the caller has already answered with. A cached page read at that version
+     * or later is served; otherwise the loader reads the page, and it is stored under the version read
+     * with it rather than under listVersion, so a page is never tagged newer than its contents.
+     */
+    public EncodedPage getFirstPage(Long userId, long listVersion, Supplier<FirstPage> loader) {
+        Cache cache = cacheManager.getCache(CacheConfig.ENCODED_ENTRY_PAGES);
+        EncodedPage page = cache == null ? null : cache.get(userId, EncodedPage.class);
+        if (page != null && page.getListVersion() >= listVersion) {
+            return page;
+        }
+        FirstPage firstPage = loader.get();
+        byte[] json = toJson(firstPage.getPage());
+        page = new EncodedPage(firstPage.getListVersion(), json, gzip(json));
+        if (cache != null) {
+            cache.put(userId, page);
+        }
+        return page;
+    }
+
+    // a page that is not kept: written once, in the one representation the client asked for
+    public byte[] encode(EntryPageDTO entryPage, boolean gzip) {
+        byte[] json = toJson(entryPage);
+        return gzip ? gzip(json) : json;
+    }
+
+    private byte[] toJson(EntryPageDTO entryPage) {
+        try {
+            return objectMapper.writeValueAsBytes(entryPage);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize entry page", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static final class EncodedPage {
+
+        private final long listVersion;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        EncodedPage(long listVersion, byte[] json, byte[] gzip) {
+            this.listVersion = listVersion;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public long getListVersion() {
+            return listVersion;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public int size() {
+            return json.length + gzip.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.mytodolist.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fractional index keys for the manual order of a user's entries. Keys compare as plain strings, so any
+ * new key can be placed between two neighbours without touching other rows. Only digits and lower-case
+ * letters are used, which sort the same under binary and case-insensitive collations.
+ *
+ * A key is an integer part followed by an optional fraction. The first character gives the number of
+ * integer digits ('a' one, 'b' two, ...), so integers of different lengths still compare correctly.
+ * Appending after the last key increments the integer, which grows one character per factor of 36;
+ * inserting between neighbours falls back to the fraction, which grows until EntryPositionRebalance
+ * spaces the keys out again. A fraction never ends in '0', so there is always room before any key.
+ */
+public final class EntryPosition {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final String SMALLEST_INTEGER = "a0"; // never a key itself, nothing could go before it
+    private static final String FIRST = "ai"; // the middle of the one-digit integers: room on both sides
+
+    private EntryPosition() {
+    }
+
+    // a key strictly between before and after; null stands for the start or the end of the list
+    public static String between(String before, String after) {
+        if (before != null) {
+            validate(before);
+        }
+        if (after != null) {
+            validate(after);
+        }
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Entries are not in order: " + before + " is not before " + after);
+        }
+        if (before == null) {
+            if (after == null) {
+                return FIRST;
+            }
+            String integer = integerPart(after);
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", after.substring(integer.length()));
+            }
+            if (integer.compareTo(after) < 0) {
+                return integer; // after has a fraction, so its bare integer part sorts first
+            }
+            String decremented = decrement(integer);
+            return decremented.equals(SMALLEST_INTEGER) ? decremented + midpoint("", null) : decremented;
+        }
+        String integerBefore = integerPart(before);
+        String fractionBefore = before.substring(integerBefore.length());
+        if (after == null) {
+            String incremented = increment(integerBefore);
+            return incremented == null ? integerBefore + midpoint(fractionBefore, null) : incremented;
+        }
+        String integerAfter = integerPart(after);
+        if (integerBefore.equals(integerAfter)) {
+            return integerBefore + midpoint(fractionBefore, after.substring(integerAfter.length()));
+        }
+        String incremented = increment(integerBefore);
+        if (incremented != null && incremented.compareTo(after) < 0) {
+            return incremented;
+        }
+        return integerBefore + midpoint(fractionBefore, null);
+    }
+
+    // count keys in order, spread evenly over the shortest integer width with a gap between neighbours
+    public static List<String> spread(int count) {
+        int width = 1;
+        double capacity = BASE;
+        while (capacity < 2.0 * (count + 1) && width < 26) {
+            width++;
+            capacity *= BASE;
+        }
+        long step = (long) Math.max(1, capacity / (count + 1));
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add((char) ('a' + width - 1) + digits(i * step, width));
+        }
+        return keys;
+    }
+
+    // a fraction strictly between a and b (b null meaning 1), neither ending in '0'
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            int common = 0;
+            while (common < b.length() && (common < a.length() ? a.charAt(common) : '0') == b.charAt(common)) {
+                common++;
+            }
+            if (common > 0) {
+                return b.substring(0, common) + midpoint(common < a.length() ? a.substring(common) : "", b.substring(common));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    // null when the integer is already the largest one
+    private static String increment(String integer) {
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) + 1;
+            if (digit < BASE) {
+                digits[i] = DIGITS.charAt(digit);
+                return integer.charAt(0) + new String(digits);
+            }
+            digits[i] = '0';
+        }
+        char head = integer.charAt(0);
+        return head == 'z' ? null : (char) (head + 1) + "0".repeat(digits.length + 1);
+    }
+
+    // only called above SMALLEST_INTEGER
+    private static String decrement(String integer) {
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) - 1;
+            if (digit >= 0) {
+                digits[i] = DIGITS.charAt(digit);
+                return integer.charAt(0) + new String(digits);
+            }
+            digits[i] = 'z';
+        }
+        return (char) (integer.charAt(0) - 1) + "z".repeat(digits.length - 1);
+    }
+
+    private static String integerPart(String key) {
+        return key.substring(0, key.charAt(0) - 'a' + 2);
+    }
+
+    private static String digits(long value, int width) {
+        StringBuilder digits = new StringBuilder(width);
+        for (int i = 0; i < width; i++) {
+            digits.append(DIGITS.charAt((int) (value % BASE)));
+            value /= BASE;
+        }
+        return digits.reverse().toString();
+    }
+
+    private static void validate(String key) {
+        char head = key.isEmpty() ? 0 : key.charAt(0);
+        if (head < 'a' || head > 'z' || key.length() < head - 'a' + 2 || key.equals(SMALLEST_INTEGER)
+                || key.chars().anyMatch(c -> DIGITS.indexOf(c) < 0)
+                || (key.length() > head - 'a' + 2 && key.endsWith("0"))) {
+            throw new IllegalArgumentException("Invalid position key: " + key);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.mytodolist.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last entry on a page of the manual order, handed to clients as an opaque string.
+ * The next page starts strictly after (position, id) with unkeyed rows first, the order
+ * EntryRepository#findIdsInPositionOrder and the position sort of /query use as well.
+ */
+public final class EntryPositionCursor {
+
+    private final String position; // null for a row that predates manual ordering
+    private final Long id;
+
+    public EntryPositionCursor(String position, Long id) {
+        this.position = position;
+        this.id = id;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = id + ":" + (position == null ? "" : position);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EntryPositionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new EntryPositionCursor(parts[1].isEmpty() ? null : parts[1], Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException ex) { // NumberFormatException is an IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.mytodolist.services;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.config.EntryConfig;
+
+/**
+ * Re-keys the manual order of users whose position keys have grown long from repeated moves into the same
+ * gap, or who still have entries from before manual ordering. Users are queued through a flag on their
+ * stats row; each rebalance is one transaction under that row's lock, so it never interleaves with a move.
+ */
+@Component
+public class EntryPositionRebalance {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryPositionRebalance.class);
+
+    private final EntryService entryService;
+    private final EntryStatsService entryStatsService;
+    private final EntryConfig entryConfig;
+
+    public EntryPositionRebalance(EntryService entryService, EntryStatsService entryStatsService, EntryConfig entryConfig) {
+        this.entryService = entryService;
+        this.entryStatsService = entryStatsService;
+        this.entryConfig = entryConfig;
+    }
+
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "${entries.position-rebalance-delay:PT10M}")
+    public void run() {
+        for (Long userId : entryStatsService.findPositionRebalanceRequests(entryConfig.getPositionRebalanceMaxUsersPerRun())) {
+            try {
+                int entries = entryService.rebalancePositions(userId);
+                logger.info("Rebalanced positions of {} entries for user {}", entries, userId);
+            } catch (RuntimeException ex) {
+                // the request stays flagged, so the next run retries it
+                logger.error("Rebalancing positions for user {} failed, will retry", userId, ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.mytodolist.services;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the preview column of entries created before it existed, one short transaction per batch.
+ * It runs before the web server takes requests, so list views never see a row without a preview.
+ * Once every row has a preview this is a single empty query at startup.
+ */
+@Component
+public class EntryPreviewBackfill implements SmartInitializingSingleton {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryPreviewBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final EntryService entryService;
+
+    public EntryPreviewBackfill(EntryService entryService) {
+        this.entryService = entryService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long filled = 0;
+        int batch;
+        do {
+            batch = entryService.backfillPreviews(BATCH_SIZE);
+            filled += batch;
+        } while (batch == BATCH_SIZE);
+        if (filled > 0) {
+            logger.info("Backfilled previews for {} entries", filled);
+        }
+    }
+
+}
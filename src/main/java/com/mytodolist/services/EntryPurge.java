@@ -0,0 +1,47 @@
+package com.mytodolist.services;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.config.EntryConfig;
+
+/**
+ * Hard-deletes entries once they have been soft-deleted for longer than the restore window. Runs off-peak
+ * (entries.purge-cron) and in short batches, each its own transaction, with a cap per run so a large
+ * backlog is spread over several nights instead of holding locks for long.
+ */
+@Component
+public class EntryPurge {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryPurge.class);
+
+    private final EntryService entryService;
+    private final EntryConfig entryConfig;
+
+    public EntryPurge(EntryService entryService, EntryConfig entryConfig) {
+        this.entryService = entryService;
+        this.entryConfig = entryConfig;
+    }
+
+    @Scheduled(cron = "${entries.purge-cron:0 */15 1-5 * * *}")
+    public void run() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(entryConfig.getPurgeRetentionDays()));
+        int batchSize = entryConfig.getPurgeBatchSize();
+        long purged = 0;
+        for (int i = 0; i < entryConfig.getPurgeMaxBatchesPerRun(); i++) {
+            int batch = entryService.purgeDeleted(cutoff, batchSize);
+            purged += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            logger.info("Purged {} deleted entries", purged);
+        }
+    }
+
+}
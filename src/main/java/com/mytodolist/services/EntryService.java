@@ -1,16 +1,48 @@
 package com.mytodolist.services;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryBatchDTO;
+import com.mytodolist.dtos.EntryBulkResultDTO;
+import com.mytodolist.dtos.EntryChangeDTO;
+import com.mytodolist.dtos.EntryChangesDTO;
+import com.mytodolist.dtos.EntryEditDTO;
+import com.mytodolist.dtos.EntryPageDTO;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.dtos.EntryUpdateDTO;
+import com.mytodolist.exceptions.EntryMoveConflictException;
+import com.mytodolist.exceptions.EntryNotFoundException;
+import com.mytodolist.exceptions.EntryVersionMismatchException;
+import com.mytodolist.exceptions.UnauthorizedAccessException;
 import com.mytodolist.models.Entry;
+import com.mytodolist.models.EntryStats;
+import com.mytodolist.models.EntryTombstone;
 import com.mytodolist.models.User;
+import com.mytodolist.repositories.EntryFilter;
 import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntrySort;
+import com.mytodolist.repositories.EntryTombstoneRepository;
 
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 @Service
@@ -19,9 +51,21 @@ public class EntryService {
 
     private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryService.class);
     private final EntryRepository entryRepository;
+    private final EntryConfig entryConfig;
+    private final EntityManager entityManager;
+    private final SearchIndexService searchIndexService;
+    private final EntryStatsService entryStatsService;
+    private final EntryTombstoneRepository entryTombstoneRepository;
 
-    public EntryService(EntryRepository entryRepository) {
+    public EntryService(EntryRepository entryRepository, EntryConfig entryConfig, EntityManager entityManager,
+            SearchIndexService searchIndexService, EntryStatsService entryStatsService,
+            EntryTombstoneRepository entryTombstoneRepository) {
         this.entryRepository = entryRepository;
+        this.entryConfig = entryConfig;
+        this.entityManager = entityManager;
+        this.searchIndexService = searchIndexService;
+        this.entryStatsService = entryStatsService;
+        this.entryTombstoneRepository = entryTombstoneRepository;
     }
 
     //CREATE
@@ -29,29 +73,522 @@ public class EntryService {
         logger.info("Creating entry for user: {}", user.getUsername());
         logger.info("Entry body: {}", entry.getEntryBody());
         entry.setUser(user);
-        return entryRepository.save(entry);
+        EntryStats stats = entryStatsService.lockForWrite(user.getId());
+        long changeSeq = entryStatsService.recordCreate(stats, EntryStatsService.bytesOf(entry.getEntryBody())); // enforces the quota
+        entry.setChangeSeq(changeSeq);
+        appendPositions(stats, List.of(entry));
+        Entry saved = entryRepository.save(entry);
+        searchIndexService.index(saved);
+        return saved;
+    }
+
+    // one quota check, one stats update and JDBC-batched inserts for the whole list
+    public List<Entry> createEntries(List<String> bodies, User user) {
+        if (bodies.isEmpty()) {
+            throw new IllegalArgumentException("At least one entry is required");
+        }
+        if (bodies.size() > entryConfig.getMaxBatchCreate()) {
+            throw new IllegalArgumentException("At most " + entryConfig.getMaxBatchCreate() + " entries can be created at once");
+        }
+        logger.info("Creating {} entries for user: {}", bodies.size(), user.getUsername());
+        List<Entry> entries = new ArrayList<>(bodies.size());
+        for (String body : bodies) {
+            entries.add(new Entry(body, user));
+        }
+        return createEntryGroup(entries);
+    }
+
+    /*
+     * Unsaved entries of any number of users in one transaction: one quota check and stats update per
+     * user, taken in user id order, then one batched insert for all of them. Returned in input order.
+     */
+    public List<Entry> createEntryGroup(List<Entry> entries) {
+        Map<Long, List<Entry>> byUser = new TreeMap<>();
+        for (Entry entry : entries) {
+            byUser.computeIfAbsent(entry.getUser().getId(), id -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<Long, List<Entry>> owned : byUser.entrySet()) {
+            List<Entry> userEntries = owned.getValue();
+            long bytes = userEntries.stream().mapToLong(entry -> EntryStatsService.bytesOf(entry.getEntryBody())).sum();
+            EntryStats stats = entryStatsService.lockForWrite(owned.getKey());
+            long lastChangeSeq = entryStatsService.recordCreateBatch(stats, userEntries.size(), bytes); // enforces the quota
+            long changeSeq = lastChangeSeq - userEntries.size();
+            for (Entry entry : userEntries) {
+                entry.setChangeSeq(++changeSeq);
+            }
+            appendPositions(stats, userEntries);
+        }
+        List<Entry> saved = entryRepository.saveAll(entries);
+        searchIndexService.indexAll(saved);
+        return saved;
     }
 
     //READ
-    public List<Entry> getEntriesByUser(User user) {
-        return entryRepository.findByUser(user);
+    /*
+     * The first page at the default size together with the list version it is current for, both read in
+     * this transaction. The version is read before the rows: a write holds the stats row lock until it
+     * commits, so every write up to that version is already visible and the page is never older than it.
+     */
+    public FirstPage getFirstPage(User user) {
+        long listVersion = entryStatsService.getListVersion(user.getId());
+        return new FirstPage(listVersion, getEntryPage(user, null, null));
+    }
+
+    public EntryPageDTO getEntryPage(User user, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1); // one extra row tells us whether there is a next page
+        List<EntrySummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = entryRepository.findFirstPageByUserId(user.getId(), fetchLimit);
+        } else {
+            EntryCursor after = EntryCursor.decode(cursor);
+            rows = entryRepository.findPageByUserIdAfter(user.getId(), after.getCreatedAt(), after.getId(), fetchLimit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            EntrySummaryDTO last = rows.get(pageSize - 1);
+            nextCursor = new EntryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new EntryPageDTO(rows, nextCursor);
+    }
+
+    // the manual order a page at a time, same contract as getEntryPage; /query caps it at one page
+    public EntryPageDTO getPositionPage(Long userId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<EntrySummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = entryRepository.findFirstPositionPageByUserId(userId, fetchLimit);
+        } else {
+            EntryPositionCursor after = EntryPositionCursor.decode(cursor);
+            rows = after.getPosition() == null
+                    ? entryRepository.findPositionPageByUserIdAfterUnkeyed(userId, after.getId(), fetchLimit)
+                    : entryRepository.findPositionPageByUserIdAfter(userId, after.getPosition(), after.getId(), fetchLimit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            EntrySummaryDTO last = rows.get(pageSize - 1);
+            nextCursor = new EntryPositionCursor(last.getPosition(), last.getId()).encode();
+        }
+        return new EntryPageDTO(rows, nextCursor);
+    }
+
+    // hands every entry of the user to the sink one at a time, detaching each so memory stays flat
+    public void exportEntries(Long userId, Consumer<Entry> sink) {
+        try (Stream<Entry> entries = entryRepository.streamByUserId(userId)) {
+            entries.forEach(entry -> {
+                sink.accept(entry);
+                entityManager.detach(entry);
+            });
+        }
+    }
+
+    // from/to are ISO-8601 instants, to is exclusive; prefix matches the start of the preview
+    public List<EntrySummaryDTO> queryEntries(Long userId, String from, String to, String prefix, String sort, Integer limit) {
+        Instant createdFrom = parseInstant("from", from);
+        Instant createdTo = parseInstant("to", to);
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (prefix != null && (prefix.isBlank() || prefix.length() > Entry.PREVIEW_LENGTH)) {
+            throw new IllegalArgumentException("prefix must be between 1 and " + Entry.PREVIEW_LENGTH + " characters");
+        }
+        EntryFilter filter = new EntryFilter(createdFrom, createdTo, prefix, EntrySort.fromParam(sort));
+        return entryRepository.findFiltered(userId, filter, resolvePageSize(limit));
+    }
+
+    // one IN query scoped to the owner; ids of other users' entries come back as missing, never as forbidden
+    public EntryBatchDTO getEntriesByIds(Long userId, List<Long> ids) {
+        LinkedHashSet<Long> requested = requireIds(ids);
+        Map<Long, EntryResponseDTO> found = entryRepository.findResponsesByUserIdAndIdIn(userId, requested).stream()
+                .collect(Collectors.toMap(EntryResponseDTO::getId, Function.identity()));
+        List<EntryResponseDTO> entries = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            EntryResponseDTO entry = found.get(id);
+            if (entry != null) {
+                entries.add(entry);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new EntryBatchDTO(entries, missing);
+    }
+
+    /*
+     * Everything written after `since`, oldest change first. The version is read before the rows: a write
+     * holds the stats row lock until it commits, so every change up to that version is already visible.
+     * When hasMore is set, the returned version is the last change included and the client asks again.
+     */
+    public EntryChangesDTO getChangesSince(Long userId, long since, Integer limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int pageSize = resolvePageSize(limit);
+        long version = entryStatsService.getListVersion(userId);
+        if (since >= version) {
+            return new EntryChangesDTO(List.of(), List.of(), version, false);
+        }
+
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<EntryChangeDTO> upserts = entryRepository.findChanges(userId, since, version, fetchLimit);
+        List<EntryTombstone> tombstones = entryTombstoneRepository.findChanges(userId, since, version, fetchLimit);
+
+        // merge both seq-ordered lists, keeping the first pageSize changes
+        List<EntryChangeDTO> pageUpserts = new ArrayList<>();
+        List<Long> pageDeletes = new ArrayList<>();
+        int u = 0;
+        int t = 0;
+        long last = since;
+        while (pageUpserts.size() + pageDeletes.size() < pageSize && (u < upserts.size() || t < tombstones.size())) {
+            if (t >= tombstones.size() || (u < upserts.size() && upserts.get(u).getChangeSeq() < tombstones.get(t).getChangeSeq())) {
+                EntryChangeDTO upsert = upserts.get(u++);
+                pageUpserts.add(upsert);
+                last = upsert.getChangeSeq();
+            } else {
+                EntryTombstone tombstone = tombstones.get(t++);
+                pageDeletes.add(tombstone.getEntryId());
+                last = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = u < upserts.size() || t < tombstones.size();
+        return new EntryChangesDTO(pageUpserts, pageDeletes, hasMore ? last : version, hasMore);
     }
 
-    public Optional<Entry> getEntryById(Long entryId) {
-        return entryRepository.findById(entryId);
+    // the owner-scoped projection the writes below start from: no entity, no user row
+    public EntryResponseDTO getOwnedEntry(Long userId, Long entryId) {
+        return findOwned(userId, entryId, "view", null);
     }
 
     //UPDATE
-    public Entry updateEntryById(Long entryId, String newBody) {
-        Entry entry = getEntryById(entryId)
-                .orElseThrow(() -> new EntityNotFoundException("Entry with id " + entryId + " not found"));
-        entry.setEntryBody(newBody);
-        return entryRepository.save(entry);
+    /*
+     * Single-entry writes never load the entity either: one owner-scoped projection read supplies the byte
+     * count and createdAt, then one owner-scoped statement changes the row. Whether the id exists at all is
+     * only looked up when the owner-scoped read comes back empty, to tell "not found" from "not yours".
+     * A non-null expectedVersion (from If-Match) must equal the version read. The write itself is
+     * conditional on the version read as well, so a row changed in between is never overwritten: the
+     * write matches nothing and the whole transaction, stats bump included, rolls back.
+     */
+    public EntryResponseDTO updateEntryById(Long userId, Long entryId, String newBody, Long expectedVersion) {
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        EntryResponseDTO current = findOwned(userId, entryId, "update", expectedVersion);
+        return writeBody(stats, current, newBody);
+    }
+
+    // autosave: the client sends splices against the version it last saw instead of the whole body
+    public EntryResponseDTO patchEntryById(Long userId, Long entryId, long baseVersion, List<EntryEditDTO> edits) {
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        EntryResponseDTO current = findOwned(userId, entryId, "update", baseVersion);
+        return writeBody(stats, current, EntryTextPatch.apply(current.getEntryBody(), edits));
+    }
+
+    private EntryResponseDTO writeBody(EntryStats stats, EntryResponseDTO current, String newBody) {
+        Long userId = stats.getUserId();
+        Long entryId = current.getId();
+        long changeSeq = entryStatsService.recordUpdate(stats,
+                EntryStatsService.bytesOf(newBody) - EntryStatsService.bytesOf(current.getEntryBody()));
+        if (entryRepository.updateBody(userId, entryId, newBody, changeSeq, Instant.now(), current.getVersion()) == 0) {
+            throw new EntryVersionMismatchException(entryId, current.getVersion());
+        }
+        searchIndexService.reindexAll(userId, Map.of(entryId, newBody));
+        return new EntryResponseDTO(entryId, newBody, current.getUsername(), current.getCreatedAt(), current.getVersion() + 1);
+    }
+
+    /*
+     * Bulk writes below never load entities: the owner's stats row is locked first so no other write of
+     * theirs can interleave, the affected rows are read as projections for the byte counts, and the rows
+     * themselves change in one set-based statement. Each row still gets its own change sequence.
+     */
+    public EntryBulkResultDTO updateEntries(Long userId, List<EntryUpdateDTO> updates) {
+        Map<Long, String> requested = new LinkedHashMap<>();
+        for (EntryUpdateDTO update : updates) {
+            if (requested.put(update.getId(), update.getEntryBody()) != null) {
+                throw new IllegalArgumentException("Entry " + update.getId() + " appears more than once");
+            }
+        }
+        requireIds(requested.keySet());
+
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        Map<Long, String> bodies = new TreeMap<>();
+        long bytesDelta = 0;
+        for (EntryResponseDTO current : entryRepository.findResponsesByUserIdAndIdIn(userId, requested.keySet())) {
+            String body = requested.get(current.getId());
+            bodies.put(current.getId(), body);
+            bytesDelta += EntryStatsService.bytesOf(body) - EntryStatsService.bytesOf(current.getEntryBody());
+        }
+        List<Long> missing = requested.keySet().stream().filter(id -> !bodies.containsKey(id)).toList();
+        if (bodies.isEmpty()) {
+            return new EntryBulkResultDTO(0, missing);
+        }
+
+        long changeSeq = entryStatsService.recordUpdateBatch(stats, bodies.size(), bytesDelta) - bodies.size();
+        Map<Long, Long> changeSeqs = new HashMap<>();
+        for (Long id : bodies.keySet()) {
+            changeSeqs.put(id, ++changeSeq);
+        }
+        int updated = entryRepository.updateBodies(userId, bodies, changeSeqs, Instant.now());
+        searchIndexService.reindexAll(userId, bodies);
+        return new EntryBulkResultDTO(updated, missing);
+    }
+
+    public EntryBulkResultDTO deleteEntries(Long userId, List<Long> ids) {
+        LinkedHashSet<Long> requested = requireIds(ids);
+
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        List<Long> found = new ArrayList<>();
+        long bytes = 0;
+        for (EntryResponseDTO current : entryRepository.findResponsesByUserIdAndIdIn(userId, requested)) {
+            found.add(current.getId());
+            bytes += EntryStatsService.bytesOf(current.getEntryBody());
+        }
+        List<Long> missing = requested.stream().filter(id -> !found.contains(id)).toList();
+        if (found.isEmpty()) {
+            return new EntryBulkResultDTO(0, missing);
+        }
+
+        found.sort(null);
+        long changeSeq = entryStatsService.recordDeleteBatch(stats, found.size(), bytes) - found.size();
+        Instant now = Instant.now();
+        List<EntryTombstone> tombstones = new ArrayList<>(found.size());
+        for (Long id : found) {
+            tombstones.add(new EntryTombstone(id, userId, ++changeSeq, now));
+        }
+        entryTombstoneRepository.saveAll(tombstones);
+        searchIndexService.removeAll(userId, found);
+        int deleted = entryRepository.softDeleteByUserIdAndIdIn(userId, found, now);
+        return new EntryBulkResultDTO(deleted, missing);
     }
 
     //DELETE
-    public void deleteEntryById(Long entryId) {
-        entryRepository.deleteById(entryId);
+    // a soft delete: the row leaves every read and the owner's counters now, EntryPurge removes it later
+    public void deleteEntryById(Long userId, Long entryId, Long expectedVersion) {
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        EntryResponseDTO current = findOwned(userId, entryId, "delete", expectedVersion);
+        long changeSeq = entryStatsService.recordDelete(stats, EntryStatsService.bytesOf(current.getEntryBody()));
+        Instant now = Instant.now();
+        entryTombstoneRepository.save(new EntryTombstone(entryId, userId, changeSeq, now));
+        searchIndexService.remove(entryId);
+        if (entryRepository.softDelete(userId, entryId, current.getVersion(), now) == 0) {
+            throw new EntryVersionMismatchException(entryId, current.getVersion());
+        }
+    }
+
+    // undoes a delete that has not been purged yet; counts against the quota like a create
+    public EntryResponseDTO restoreEntryById(Long userId, Long entryId) {
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        EntryResponseDTO deleted = entryRepository.findDeleted(userId, entryId)
+                .orElseThrow(() -> new EntryNotFoundException(entryId));
+        long changeSeq = entryStatsService.recordCreate(stats, EntryStatsService.bytesOf(deleted.getEntryBody()));
+        entryRepository.restore(userId, entryId, changeSeq, Instant.now());
+        entryTombstoneRepository.deleteByEntryIdAndUserId(entryId, userId); // sync clients now see an upsert instead
+        searchIndexService.reindexAll(userId, Map.of(entryId, deleted.getEntryBody()));
+        return new EntryResponseDTO(entryId, deleted.getEntryBody(), deleted.getUsername(), deleted.getCreatedAt(),
+                deleted.getVersion() + 1);
+    }
+
+    /*
+     * Drag and drop: the entry lands right after afterId and right before beforeId. Both come from the
+     * client's copy of the list, so they are checked against the table under the stats row lock: with one
+     * left out the entry goes right next to the other, and two that are no longer adjacent (another
+     * device has put an entry between them) are a conflict. Only the moved row is written; the lock
+     * serializes moves of the same user and its list version bump, stamped on the row as its change
+     * sequence, changes the ETag of the list and reports the new position through /entries/changes.
+     */
+    public void moveEntry(Long userId, Long entryId, Long afterId, Long beforeId) {
+        if (afterId == null && beforeId == null) {
+            throw new IllegalArgumentException("afterId or beforeId is required");
+        }
+        if (entryId.equals(afterId) || entryId.equals(beforeId)) {
+            throw new IllegalArgumentException("An entry cannot be moved next to itself");
+        }
+        EntryStats stats = entryStatsService.lockForWrite(userId);
+        Map<Long, String> positions = findPositions(userId, entryId, afterId, beforeId);
+        if (positions.containsValue(null)) { // rows from before manual ordering: key them all now
+            rebalancePositions(stats);
+            positions = findPositions(userId, entryId, afterId, beforeId);
+        }
+        String position = positionBetween(userId, entryId, afterId, beforeId, positions);
+        if (position.length() > Entry.POSITION_LENGTH) { // the background rebalance has fallen behind
+            rebalancePositions(stats);
+            position = positionBetween(userId, entryId, afterId, beforeId, findPositions(userId, entryId, afterId, beforeId));
+        } else if (position.length() > entryConfig.getPositionRebalanceLength()) {
+            entryStatsService.requestPositionRebalance(stats);
+        }
+        entryRepository.updatePosition(userId, entryId, position, entryStatsService.recordUpdate(stats, 0));
+    }
+
+    /*
+     * Gives the user's entries evenly spaced short keys in their current order; returns how many were keyed.
+     * Every key changes, so every row gets a change sequence of its own and sync clients pick up the new keys.
+     */
+    public int rebalancePositions(Long userId) {
+        return rebalancePositions(entryStatsService.lockForWrite(userId));
+    }
+
+    private int rebalancePositions(EntryStats stats) {
+        Long userId = stats.getUserId();
+        List<Long> ids = entryRepository.findIdsInPositionOrder(userId);
+        List<String> keys = EntryPosition.spread(ids.size());
+        Map<Long, String> chunk = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            chunk.put(ids.get(i), keys.get(i));
+            if (chunk.size() == entryConfig.getMaxBatchCreate() || i == ids.size() - 1) {
+                long changeSeq = entryStatsService.recordUpdateBatch(stats, chunk.size(), 0) - chunk.size();
+                Map<Long, Long> changeSeqs = new HashMap<>();
+                for (Long id : chunk.keySet()) {
+                    changeSeqs.put(id, ++changeSeq);
+                }
+                entryRepository.updatePositions(userId, chunk, changeSeqs);
+                chunk.clear();
+            }
+        }
+        entryStatsService.clearPositionRebalance(stats);
+        return ids.size();
+    }
+
+    // hard-deletes one batch of entries soft-deleted before the cutoff, returns how many were removed
+    public int purgeDeleted(Instant deletedBefore, int batchSize) {
+        return entryRepository.purge(entryRepository.findPurgeable(deletedBefore, batchSize));
+    }
+
+    private EntryResponseDTO findOwned(Long userId, Long entryId, String action, Long expectedVersion) {
+        List<EntryResponseDTO> rows = entryRepository.findResponsesByUserIdAndIdIn(userId, List.of(entryId));
+        if (!rows.isEmpty()) {
+            EntryResponseDTO current = rows.get(0);
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new EntryVersionMismatchException(entryId, expectedVersion);
+            }
+            return current;
+        }
+        if (entryRepository.existsById(entryId)) {
+            throw new UnauthorizedAccessException("You do not have permission to " + action + " this entry.");
+        }
+        throw new EntryNotFoundException(entryId);
+    }
+
+    // keys after the current end of the user's manual order; stats is the user's locked row, already counting entries
+    private void appendPositions(EntryStats stats, List<Entry> entries) {
+        String last = entryRepository.findLastPosition(stats.getUserId());
+        if (last == null && stats.getEntryCount() > entries.size()) {
+            entryStatsService.requestPositionRebalance(stats); // older rows have no key yet
+        }
+        for (Entry entry : entries) {
+            last = EntryPosition.between(last, null);
+            entry.setPosition(last);
+        }
+    }
+
+    // a key between the given neighbours and their actual neighbours in the table, the moved entry left out
+    private String positionBetween(Long userId, Long entryId, Long afterId, Long beforeId, Map<Long, String> positions) {
+        String after = afterId == null ? null : positions.get(afterId);
+        String before = beforeId == null ? null : positions.get(beforeId);
+        if (after != null && before != null && after.compareTo(before) >= 0) {
+            throw new IllegalArgumentException("Entry " + afterId + " does not come before entry " + beforeId);
+        }
+        if (before == null) {
+            before = entryRepository.findNextPosition(userId, after, entryId); // null when afterId is last
+        } else if (after == null) {
+            after = entryRepository.findPreviousPosition(userId, before, entryId); // null when beforeId is first
+        } else if (!before.equals(entryRepository.findNextPosition(userId, after, entryId))) {
+            throw new EntryMoveConflictException(afterId, beforeId);
+        }
+        return EntryPosition.between(after, before);
+    }
+
+    // owned rows only; the moved entry missing is a 403 or 404 like any other write, a missing neighbour a 404
+    private Map<Long, String> findPositions(Long userId, Long entryId, Long afterId, Long beforeId) {
+        List<Long> ids = Stream.of(entryId, afterId, beforeId).filter(id -> id != null).toList();
+        Map<Long, String> positions = new HashMap<>();
+        for (Object[] row : entryRepository.findPositions(userId, ids)) {
+            positions.put((Long) row[0], (String) row[1]);
+        }
+        if (!positions.containsKey(entryId)) {
+            if (entryRepository.existsById(entryId)) {
+                throw new UnauthorizedAccessException("You do not have permission to move this entry.");
+            }
+            throw new EntryNotFoundException(entryId);
+        }
+        for (Long id : ids) {
+            if (!positions.containsKey(id)) {
+                throw new EntryNotFoundException(id);
+            }
+        }
+        return positions;
+    }
+
+    // fills the preview of one batch of legacy rows, returns how many were filled
+    public int backfillPreviews(int batchSize) {
+        List<EntryResponseDTO> rows = entryRepository.findWithoutPreview(Limit.of(batchSize));
+        for (EntryResponseDTO row : rows) {
+            entryRepository.setPreview(row.getId(), Entry.previewOf(row.getEntryBody()));
+        }
+        return rows.size();
+    }
+
+    // moves one batch of legacy uncompressed bodies into the compressed column, returns how many were moved
+    public int compactBodies(int batchSize) {
+        List<EntryResponseDTO> rows = entryRepository.findUncompacted(Limit.of(batchSize));
+        for (EntryResponseDTO row : rows) {
+            entryRepository.compactBody(row.getId(), row.getEntryBody());
+        }
+        return rows.size();
+    }
+
+    private LinkedHashSet<Long> requireIds(Collection<Long> ids) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (requested.size() > entryConfig.getMaxBatchIds()) {
+            throw new IllegalArgumentException("At most " + entryConfig.getMaxBatchIds() + " ids can be handled at once");
+        }
+        return requested;
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return entryConfig.getPageSize();
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, entryConfig.getMaxPageSize());
+    }
+
+    public static final class FirstPage {
+
+        private final long listVersion;
+        private final EntryPageDTO page;
+
+        public FirstPage(long listVersion, EntryPageDTO page) {
+            this.listVersion = listVersion;
+            this.page = page;
+        }
+
+        public long getListVersion() {
+            return listVersion;
+        }
+
+        public EntryPageDTO getPage() {
+            return page;
+        }
+
     }
 
 }
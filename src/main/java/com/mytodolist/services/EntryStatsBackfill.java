@@ -0,0 +1,37 @@
+package com.mytodolist.services;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the stats row of every account registered before the stats table existed, one short
+ * transaction per batch. It runs once all beans are ready and before the web server takes requests,
+ * so no request ever finds a row missing. Afterwards this is a single empty query at startup.
+ */
+@Component
+public class EntryStatsBackfill implements SmartInitializingSingleton {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryStatsBackfill.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final EntryStatsService entryStatsService;
+
+    public EntryStatsBackfill(EntryStatsService entryStatsService) {
+        this.entryStatsService = entryStatsService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long created = 0;
+        int batch;
+        do {
+            batch = entryStatsService.backfill(BATCH_SIZE);
+            created += batch;
+        } while (batch == BATCH_SIZE);
+        if (created > 0) {
+            logger.info("Created entry stats for {} existing accounts", created);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.mytodolist.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntryStatsDTO;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.exceptions.UserNotFoundException;
+import com.mytodolist.models.EntryStats;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntryStatsRepository;
+
+import jakarta.transaction.Transactional;
+
+@Service
+@Transactional
+public class EntryStatsService {
+
+    private final EntryStatsRepository entryStatsRepository;
+    private final EntryRepository entryRepository;
+    private final EntryConfig entryConfig;
+
+    public EntryStatsService(EntryStatsRepository entryStatsRepository, EntryRepository entryRepository, EntryConfig entryConfig) {
+        this.entryStatsRepository = entryStatsRepository;
+        this.entryRepository = entryRepository;
+        this.entryConfig = entryConfig;
+    }
+
+    public static long bytesOf(String body) {
+        return body == null ? 0 : body.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    //CREATE
+    // called by UserService in the registration transaction, so every account has its row before its first write
+    public void createFor(Long userId) {
+        entryStatsRepository.save(new EntryStats(userId, 0, 0));
+    }
+
+    // one-off catch-up for users whose entries predate the stats table; returns how many rows were created
+    public int backfill(int batchSize) {
+        List<Long> userIds = entryStatsRepository.findUserIdsWithoutStats(Limit.of(batchSize));
+        userIds.forEach(this::initialize);
+        return userIds.size();
+    }
+
+    //READ
+    public EntryStatsDTO getStats(Long userId) {
+        EntryStats stats = find(userId);
+        return new EntryStatsDTO(stats.getEntryCount(), stats.getStoredBytes(), entryConfig.getMaxEntriesPerUser());
+    }
+
+    public List<Long> findPositionRebalanceRequests(int limit) {
+        return entryStatsRepository.findPositionRebalanceUserIds(Limit.of(limit));
+    }
+
+    public long getListVersion(Long userId) {
+        return find(userId).getListVersion();
+    }
+
+    /*
+     * Taken before reading rows that a write is about to change, so nothing else writes them in between.
+     * The locked row is handed back to the record methods below, so a write locks it once.
+     */
+    public EntryStats lockForWrite(Long userId) {
+        return lock(userId);
+    }
+
+    //UPDATE: called by EntryService inside its write transaction. Each returns the new list version,
+    // which doubles as the change sequence of the write since the row lock is held until commit.
+    public long recordCreate(EntryStats stats, long bytes) {
+        if (stats.getEntryCount() >= entryConfig.getMaxEntriesPerUser()) {
+            throw new EntryQuotaExceededException(entryConfig.getMaxEntriesPerUser());
+        }
+        stats.setEntryCount(stats.getEntryCount() + 1);
+        stats.setStoredBytes(stats.getStoredBytes() + bytes);
+        return stats.bumpListVersion();
+    }
+
+    // a batch of creates gets one version per entry so change sequences stay unique; returns the last one
+    public long recordCreateBatch(EntryStats stats, int count, long bytes) {
+        if (stats.getEntryCount() + count > entryConfig.getMaxEntriesPerUser()) {
+            throw new EntryQuotaExceededException(entryConfig.getMaxEntriesPerUser());
+        }
+        stats.setEntryCount(stats.getEntryCount() + count);
+        stats.setStoredBytes(stats.getStoredBytes() + bytes);
+        return stats.bumpListVersion(count);
+    }
+
+    public long recordUpdateBatch(EntryStats stats, int count, long bytesDelta) {
+        stats.setStoredBytes(stats.getStoredBytes() + bytesDelta);
+        return stats.bumpListVersion(count);
+    }
+
+    public long recordDeleteBatch(EntryStats stats, int count, long bytes) {
+        stats.setEntryCount(Math.max(0, stats.getEntryCount() - count));
+        stats.setStoredBytes(Math.max(0, stats.getStoredBytes() - bytes));
+        return stats.bumpListVersion(count);
+    }
+
+    public long recordUpdate(EntryStats stats, long bytesDelta) {
+        stats.setStoredBytes(stats.getStoredBytes() + bytesDelta);
+        return stats.bumpListVersion();
+    }
+
+    public void requestPositionRebalance(EntryStats stats) {
+        stats.requestPositionRebalance(Instant.now());
+    }
+
+    public void clearPositionRebalance(EntryStats stats) {
+        stats.clearPositionRebalance();
+    }
+
+    public long recordDelete(EntryStats stats, long bytes) {
+        stats.setEntryCount(Math.max(0, stats.getEntryCount() - 1));
+        stats.setStoredBytes(Math.max(0, stats.getStoredBytes() - bytes));
+        return stats.bumpListVersion();
+    }
+
+    /*
+     * The row is never created here: it comes with the account (createFor) or from the startup backfill,
+     * so two first requests of a user can never both insert it. A missing row means the account is gone.
+     */
+    private EntryStats lock(Long userId) {
+        return entryStatsRepository.findForUpdate(userId).orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    private EntryStats find(Long userId) {
+        return entryStatsRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    private EntryStats initialize(Long userId) {
+        long count = 0;
+        long bytes = 0;
+        try (Stream<EntryResponseDTO> entries = entryRepository.streamResponsesByUserId(userId)) {
+            for (EntryResponseDTO entry : (Iterable<EntryResponseDTO>) entries::iterator) {
+                count++;
+                bytes += bytesOf(entry.getEntryBody());
+            }
+        }
+        EntryStats stats = new EntryStats(userId, count, bytes);
+        entryRepository.stampMissingChangeSeq(userId, stats.getListVersion());
+        return entryStatsRepository.save(stats);
+    }
+
+}
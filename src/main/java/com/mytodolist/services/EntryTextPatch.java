@@ -0,0 +1,43 @@
+package com.mytodolist.services;
+
+import java.util.List;
+
+import com.mytodolist.dtos.EntryEditDTO;
+
+/**
+ * Applies a client's splice list to an entry body. Each edit is only checked to fall inside the text and
+ * not to split a character; the content is not compared, so a patch built for a different body of the right
+ * length would apply. The patch's baseVersion, checked before this runs, is what ties it to this body.
+ */
+public final class EntryTextPatch {
+
+    public static final int MAX_BODY_LENGTH = 5000;
+
+    private EntryTextPatch() {
+    }
+
+    public static String apply(String body, List<EntryEditDTO> edits) {
+        StringBuilder text = new StringBuilder(body);
+        for (EntryEditDTO edit : edits) {
+            int at = edit.getAt();
+            int end = at + edit.getDelete();
+            if (at > text.length() || end > text.length() || end < at) {
+                throw new IllegalArgumentException("Edit at " + at + " is outside the entry body");
+            }
+            if (splitsSurrogatePair(text, at) || splitsSurrogatePair(text, end)) {
+                throw new IllegalArgumentException("Edit at " + at + " splits a character");
+            }
+            text.replace(at, end, edit.getInsert() == null ? "" : edit.getInsert());
+        }
+        if (text.length() > MAX_BODY_LENGTH) {
+            throw new IllegalArgumentException("Entry cannot exceed " + MAX_BODY_LENGTH + " characters");
+        }
+        return text.toString();
+    }
+
+    private static boolean splitsSurrogatePair(CharSequence text, int index) {
+        return index > 0 && index < text.length()
+                && Character.isHighSurrogate(text.charAt(index - 1)) && Character.isLowSurrogate(text.charAt(index));
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.mytodolist.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.exceptions.EntryWriteQueueFullException;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.User;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional group commit for single entry creates. Requests wait in a bounded queue; one flusher thread
+ * commits whatever has gathered, across users, in a single transaction once the group is full or the
+ * oldest request has waited the configured delay, and only then releases the waiting requests.
+ * A full queue pushes back with a 503 instead of growing. Off unless entries.write-behind-enabled is set.
+ */
+@Component
+public class EntryWriteBehind {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(EntryWriteBehind.class);
+    private static final long IDLE_POLL_MILLIS = 100; // how often an idle flusher notices shutdown
+
+    private final EntryService entryService;
+    private final EntryConfig entryConfig;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary groupSize;
+    private final Timer commitLatency;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public EntryWriteBehind(EntryService entryService, EntryConfig entryConfig, MeterRegistry meterRegistry) {
+        this.entryService = entryService;
+        this.entryConfig = entryConfig;
+        this.queue = new ArrayBlockingQueue<>(entryConfig.getWriteBehindQueueCapacity());
+        this.groupSize = DistributionSummary.builder("entries.write_behind.group.size")
+                .description("Entries committed per write-behind transaction")
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("entries.write_behind.commit")
+                .description("Time to commit one write-behind group")
+                .register(meterRegistry);
+        Gauge.builder("entries.write_behind.queue.size", queue, BlockingQueue::size)
+                .description("Entries waiting for the next group commit")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!entryConfig.isWriteBehindEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "entry-write-behind");
+        flusher.start();
+    }
+
+    // stops taking new work, then lets the flusher commit whatever is still queued
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join();
+        }
+    }
+
+    // blocks until the group holding this entry has committed; failures surface as the original exception
+    public Entry create(String body, User user) {
+        if (!running) { // disabled, or shutting down and the flusher may already be gone
+            return entryService.createEntry(new Entry(body, user), user);
+        }
+        PendingCreate pending = new PendingCreate(body, user);
+        try {
+            if (!queue.offer(pending, entryConfig.getWriteBehindEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new EntryWriteQueueFullException();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new EntryWriteQueueFullException();
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void flushLoop() {
+        int maxGroupSize = entryConfig.getWriteBehindMaxGroupSize();
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(entryConfig.getWriteBehindMaxDelayMillis());
+        List<PendingCreate> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxGroupSize) {
+                    queue.drainTo(group, maxGroupSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxGroupSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commit(group);
+            } catch (InterruptedException ex) {
+                // with the flag set the commits below would be cut short as well; it is restored once they are done
+                Thread.interrupted();
+                logger.warn("Write-behind flusher interrupted, {} queued entries are committed one by one", queue.size());
+                queue.drainTo(group);
+                commitEach(group);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Write-behind flusher failed on a group of {}", group.size(), ex);
+                group.forEach(pending -> pending.result.completeExceptionally(ex));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingCreate> group) {
+        List<Entry> entries = new ArrayList<>(group.size());
+        for (PendingCreate pending : group) {
+            entries.add(new Entry(pending.body, pending.user));
+        }
+        Timer.Sample sample = Timer.start();
+        List<Entry> saved;
+        try {
+            saved = entryService.createEntryGroup(entries);
+        } catch (RuntimeException ex) {
+            // one request over its quota must not fail the rest of its group
+            logger.info("Group of {} entries failed ({}), committing them one by one", group.size(), ex.getMessage());
+            commitEach(group);
+            return;
+        }
+        sample.stop(commitLatency);
+        groupSize.record(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result.complete(saved.get(i));
+        }
+    }
+
+    private void commitEach(List<PendingCreate> group) {
+        for (PendingCreate pending : group) {
+            try {
+                pending.result.complete(entryService.createEntry(new Entry(pending.body, pending.user), pending.user));
+            } catch (RuntimeException ex) {
+                pending.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private static final class PendingCreate {
+
+        private final String body;
+        private final User user;
+        private final CompletableFuture<Entry> result = new CompletableFuture<>();
+
+        private PendingCreate(String body, User user) {
+            this.body = body;
+            this.user = user;
+        }
+
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.mytodolist.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySearchResultDTO;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.SearchIndexStats;
+import com.mytodolist.models.SearchPosting;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.SearchIndexStatsRepository;
+import com.mytodolist.repositories.SearchPostingRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Per-user inverted index over entry bodies, kept in the database next to the
+ * entries and ranked with BM25. EntryService keeps it up to date on every write.
+ * A new account starts with an empty index; the index of an account from before
+ * search existed is built from its entries the first time it is needed.
+ */
+@Service
+@Transactional
+public class SearchIndexService {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    // standard BM25 tuning constants
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    static final int DEFAULT_RESULTS = 20;
+    static final int MAX_RESULTS = 100;
+    static final int MAX_QUERY_TERMS = 10;
+
+    private final SearchPostingRepository postingRepository;
+    private final SearchIndexStatsRepository statsRepository;
+    private final EntryRepository entryRepository;
+    private final EntityManager entityManager;
+    private final EntryStatsService entryStatsService;
+
+    public SearchIndexService(SearchPostingRepository postingRepository, SearchIndexStatsRepository statsRepository,
+            EntryRepository entryRepository, EntityManager entityManager, EntryStatsService entryStatsService) {
+        this.postingRepository = postingRepository;
+        this.statsRepository = statsRepository;
+        this.entryRepository = entryRepository;
+        this.entityManager = entityManager;
+        this.entryStatsService = entryStatsService;
+    }
+
+    //CREATE
+    // called by UserService in the registration transaction: a user without entries has an empty index
+    public void createFor(Long userId) {
+        insertStats(new SearchIndexStats(userId, 0, 0));
+    }
+
+    public void index(Entry entry) {
+        Long userId = entry.getUser().getId();
+        if (buildIfMissing(userId)) {
+            return; // the build picked up this entry as well
+        }
+        List<SearchPosting> postings = new ArrayList<>();
+        int length = addPostings(postings, entry.getId(), userId, entry.getEntryBody());
+        writePostings(postings);
+        if (length > 0) {
+            statsRepository.adjust(userId, 1, length);
+        }
+    }
+
+    // one stats update per owner in the batch instead of one per entry
+    public void indexAll(List<Entry> entries) {
+        Map<Long, List<Entry>> byUser = entries.stream()
+                .collect(Collectors.groupingBy(entry -> entry.getUser().getId(), LinkedHashMap::new, Collectors.toList()));
+        byUser.forEach(this::indexAll);
+    }
+
+    private void indexAll(Long userId, List<Entry> entries) {
+        if (buildIfMissing(userId)) {
+            return; // the build flushes and picks up all of this user's entries in the batch
+        }
+        List<SearchPosting> postings = new ArrayList<>();
+        long documents = 0;
+        long totalLength = 0;
+        for (Entry entry : entries) {
+            int length = addPostings(postings, entry.getId(), userId, entry.getEntryBody());
+            if (length > 0) {
+                documents++;
+                totalLength += length;
+            }
+        }
+        writePostings(postings);
+        if (documents > 0) {
+            statsRepository.adjust(userId, documents, totalLength);
+        }
+    }
+
+    //DELETE
+    public void remove(Long entryId) {
+        for (Object[] document : postingRepository.findDocumentLength(entryId)) {
+            postingRepository.deleteByEntryId(entryId);
+            statsRepository.adjust((Long) document[0], -1, -((Number) document[1]).longValue());
+        }
+    }
+
+    // set-based removal of several entries of one user, with a single stats update
+    public void removeAll(Long userId, Collection<Long> entryIds) {
+        List<Object[]> documents = postingRepository.findDocumentLengths(userId, entryIds);
+        if (documents.isEmpty()) {
+            return;
+        }
+        long totalLength = documents.stream().mapToLong(row -> ((Number) row[1]).longValue()).sum();
+        postingRepository.deleteByUserIdAndEntryIdIn(userId, entryIds);
+        statsRepository.adjust(userId, -documents.size(), -totalLength);
+    }
+
+    //UPDATE
+    // bodies keyed by entry id; if the user's index is not built yet it will be built from the new bodies later
+    public void reindexAll(Long userId, Map<Long, String> bodies) {
+        if (!statsRepository.existsById(userId)) {
+            return;
+        }
+        removeAll(userId, bodies.keySet());
+        List<SearchPosting> postings = new ArrayList<>();
+        long documents = 0;
+        long totalLength = 0;
+        for (Map.Entry<Long, String> body : bodies.entrySet()) {
+            int length = addPostings(postings, body.getKey(), userId, body.getValue());
+            if (length > 0) {
+                documents++;
+                totalLength += length;
+            }
+        }
+        writePostings(postings);
+        if (documents > 0) {
+            statsRepository.adjust(userId, documents, totalLength);
+        }
+    }
+
+    //READ
+    public List<EntrySearchResultDTO> search(Long userId, String query, Integer limit) {
+        List<String> terms = SearchTokenizer.tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_RESULTS)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS);
+        }
+        int maxResults = limit == null ? DEFAULT_RESULTS : limit;
+
+        SearchIndexStats stats = statsRepository.findById(userId).orElseGet(() -> {
+            buildIfMissing(userId);
+            return statsRepository.findById(userId).orElseThrow();
+        });
+        if (stats.getDocumentCount() == 0) {
+            return List.of();
+        }
+
+        List<SearchPosting> postings = postingRepository.findByUserIdAndTermIn(userId, terms);
+        Map<Long, Double> scores = score(postings, stats);
+
+        List<Map.Entry<Long, Double>> top = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(maxResults)
+                .toList();
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, EntryResponseDTO> entries = entryRepository
+                .findResponsesByUserIdAndIdIn(userId, top.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(EntryResponseDTO::getId, Function.identity()));
+
+        List<EntrySearchResultDTO> results = new ArrayList<>();
+        for (Map.Entry<Long, Double> hit : top) {
+            EntryResponseDTO entry = entries.get(hit.getKey());
+            if (entry != null) {
+                results.add(new EntrySearchResultDTO(entry, hit.getValue()));
+            }
+        }
+        return results;
+    }
+
+    static Map<Long, Double> score(List<SearchPosting> postings, SearchIndexStats stats) {
+        double documentCount = stats.getDocumentCount();
+        double averageLength = Math.max(stats.getAverageLength(), 1);
+
+        Map<String, Long> documentFrequencies = postings.stream()
+                .collect(Collectors.groupingBy(SearchPosting::getTerm, Collectors.counting()));
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (SearchPosting posting : postings) {
+            double df = documentFrequencies.get(posting.getTerm());
+            double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            double tf = posting.getTermFrequency();
+            double norm = K1 * (1 - B + B * posting.getDocumentLength() / averageLength);
+            scores.merge(posting.getEntryId(), idf * (tf * (K1 + 1)) / (tf + norm), Double::sum);
+        }
+        return scores;
+    }
+
+    /*
+     * A missing index row is only checked again under the user's stats row lock, which entry writes hold
+     * already. Concurrent first callers queue on it and find the row built by the first one, so only the
+     * caller that inserts the row builds the index; returns true for that caller.
+     */
+    private boolean buildIfMissing(Long userId) {
+        if (statsRepository.existsById(userId)) {
+            return false;
+        }
+        entryStatsService.lockForWrite(userId);
+        if (statsRepository.existsById(userId)) {
+            return false;
+        }
+        rebuild(userId);
+        return true;
+    }
+
+    private SearchIndexStats rebuild(Long userId) {
+        logger.info("Building search index for user {}", userId);
+        postingRepository.deleteByUserId(userId);
+        List<SearchPosting> postings = new ArrayList<>();
+        long documents = 0;
+        long totalLength = 0;
+        try (Stream<EntryResponseDTO> entries = entryRepository.streamResponsesByUserId(userId)) {
+            for (EntryResponseDTO entry : (Iterable<EntryResponseDTO>) entries::iterator) {
+                int length = addPostings(postings, entry.getId(), userId, entry.getEntryBody());
+                if (length > 0) {
+                    documents++;
+                    totalLength += length;
+                }
+            }
+        }
+        writePostings(postings);
+        SearchIndexStats stats = new SearchIndexStats(userId, documents, totalLength);
+        insertStats(stats);
+        return stats;
+    }
+
+    /*
+     * The row only ever changes through the bulk adjust, which bypasses the persistence context, so it is
+     * not left managed: a search later in the same transaction would read the counts it was inserted with.
+     */
+    private void insertStats(SearchIndexStats stats) {
+        entityManager.persist(stats);
+        entityManager.flush();
+        entityManager.detach(stats);
+    }
+
+    /*
+     * Like the stats row, postings are only ever removed by bulk deletes, which bypass the persistence
+     * context. They are written and detached straight away, so a later delete and re-add of the same
+     * (entry, term) in this transaction never meets a stale managed copy.
+     */
+    private void writePostings(List<SearchPosting> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        postings.forEach(entityManager::persist);
+        entityManager.flush();
+        postings.forEach(entityManager::detach);
+    }
+
+    // collects the postings of one body; returns the document length, or 0 if it has no indexable terms
+    private int addPostings(List<SearchPosting> postings, Long entryId, Long userId, String body) {
+        List<String> tokens = SearchTokenizer.tokenize(body);
+        Map<String, Integer> frequencies = SearchTokenizer.termFrequencies(tokens);
+        for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+            postings.add(new SearchPosting(entryId, term.getKey(), userId, term.getValue(), tokens.size()));
+        }
+        return frequencies.isEmpty() ? 0 : tokens.size();
+    }
+
+}
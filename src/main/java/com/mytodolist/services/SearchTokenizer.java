@@ -0,0 +1,50 @@
+package com.mytodolist.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.mytodolist.models.SearchPosting;
+
+/**
+ * Splits entry text into lower-cased index terms. The same rules are applied to
+ * entry bodies and to search queries so both sides agree on what a term is.
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() > 1 && token.length() <= SearchPosting.MAX_TERM_LENGTH && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // term -> number of occurrences, in first-seen order
+    public static Map<String, Integer> termFrequencies(List<String> tokens) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+}
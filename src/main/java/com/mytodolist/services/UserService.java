@@ -17,10 +17,17 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccountDeletionService accountDeletionService;
+    private final EntryStatsService entryStatsService;
+    private final SearchIndexService searchIndexService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AccountDeletionService accountDeletionService,
+            EntryStatsService entryStatsService, SearchIndexService searchIndexService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.accountDeletionService = accountDeletionService;
+        this.entryStatsService = entryStatsService;
+        this.searchIndexService = searchIndexService;
     }
 
     //CREATE
@@ -33,7 +40,10 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        entryStatsService.createFor(saved.getId());
+        searchIndexService.createFor(saved.getId());
+        return saved;
     }
 
     //READ
@@ -47,11 +57,12 @@ public class UserService {
 
     //UPDATE
     //DELETE
+    // disables the account at once; its rows are removed in the background by AccountDeletionWorker
     public void deleteUser(Long userId) {
         if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("User with ID " + userId + " does not exist");
         }
-        userRepository.deleteById(userId);
+        accountDeletionService.requestDeletion(userId);
     }
 
 }
@@ -0,0 +1,59 @@
+package com.mytodolist.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import com.mytodolist.models.EntryBodyConverter;
+
+/**
+ * Stored size and encode/decode cost of entry bodies per deflate level. Not a unit test; run it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.mytodolist.benchmark.EntryBodyCompressionBenchmark}
+ */
+public class EntryBodyCompressionBenchmark {
+
+    private static final String[] WORDS = {
+        "the", "meeting", "notes", "release", "schedule", "follow", "up", "with", "team", "about", "budget",
+        "groceries", "milk", "call", "dentist", "project", "deadline", "review", "draft", "and", "for", "next", "week"
+    };
+    private static final int[] SIZES = {100, 500, 1000, 2500, 5000};
+    private static final int[] LEVELS = {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION};
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        System.out.printf("%6s %6s %8s %8s %7s %10s %10s%n", "chars", "level", "utf8", "stored", "ratio", "encode ns", "decode ns");
+        for (int size : SIZES) {
+            String body = text(random, size);
+            int utf8 = body.getBytes(StandardCharsets.UTF_8).length;
+            for (int level : LEVELS) {
+                byte[] stored = EntryBodyConverter.encode(body, level);
+                long encodeNs = time(() -> EntryBodyConverter.encode(body, level));
+                long decodeNs = time(() -> EntryBodyConverter.decode(stored));
+                System.out.printf("%6d %6d %8d %8d %7.2f %10d %10d%n",
+                        size, level, utf8, stored.length, (double) stored.length / utf8, encodeNs, decodeNs);
+            }
+        }
+    }
+
+    private static String text(Random random, int chars) {
+        StringBuilder sb = new StringBuilder(chars);
+        while (sb.length() < chars) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.substring(0, chars);
+    }
+
+    private static long time(Runnable op) {
+        for (int i = 0; i < WARMUP; i++) {
+            op.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+}
@@ -245,7 +245,8 @@ public class AuthenticationControllerTest {
 
         when(refreshTokenService.isValidRefreshToken("oldToken")).thenReturn(true);
         when(refreshTokenService.findByToken("oldToken")).thenReturn(old);
-        when(jwtUtilityService.generateToken(user)).thenReturn("newAccessToken");
+        when(roleService.getUserRoles(1L)).thenReturn(Set.of("ROLE_USER"));
+        when(jwtUtilityService.generateToken(user, Set.of("ROLE_USER"))).thenReturn("newAccessToken");
         when(refreshTokenService.createRefreshToken(user)).thenReturn(newToken);
 
         mockMvc.perform(post("/api/v1/auth/refresh")
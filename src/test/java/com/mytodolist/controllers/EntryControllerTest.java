@@ -1,18 +1,34 @@
 package com.mytodolist.controllers;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,25 +36,53 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.mytodolist.customauthtoken.WithCustomUser;
+import com.mytodolist.dtos.EntryBatchCreateDTO;
+import com.mytodolist.dtos.EntryBatchDTO;
+import com.mytodolist.dtos.EntryChangeDTO;
+import com.mytodolist.dtos.EntryChangesDTO;
 import com.mytodolist.dtos.EntryDTO;
+import com.mytodolist.dtos.EntryImportResultDTO;
+import com.mytodolist.dtos.EntryPageDTO;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySearchResultDTO;
+import com.mytodolist.dtos.EntryStatsDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.exceptions.EntryNotFoundException;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.exceptions.EntryVersionMismatchException;
+import com.mytodolist.exceptions.EntryWriteQueueFullException;
+import com.mytodolist.exceptions.UnauthorizedAccessException;
 import com.mytodolist.models.Entry;
 import com.mytodolist.models.User;
 import com.mytodolist.security.providers.UsernamePasswordAuthenticationProvider;
 import com.mytodolist.security.services.JwtUtilityService;
 import com.mytodolist.security.services.RefreshTokenService;
 import com.mytodolist.security.services.RoleService;
-import com.mytodolist.security.userdetails.TodoUserDetails;
+import com.mytodolist.security.userdetails.JwtPrincipal;
+import com.mytodolist.services.EntryIdempotency;
+import com.mytodolist.services.EntryImport;
+import com.mytodolist.services.EntryPageResponseCache;
 import com.mytodolist.services.EntryService;
+import com.mytodolist.services.EntryService.FirstPage;
+import com.mytodolist.services.EntryStatsService;
+import com.mytodolist.services.EntryWriteBehind;
+import com.mytodolist.services.SearchIndexService;
 import com.mytodolist.services.UserService;
 import com.mytodolist.security.userdetails.TodoUserDetailsService;
 import com.mytodolist.security.config.JwtAuthenticationEntryPoint;
@@ -47,10 +91,12 @@ import com.mytodolist.security.config.TimeConfig;
 import com.mytodolist.security.filters.JwtAuthFilter;
 
 import java.time.Clock;
+import java.time.Instant;
 import org.springframework.context.annotation.Import;
 
 @WebMvcTest(EntryController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({EntryPageResponseCache.class, EntryIdempotency.class, EntryControllerTest.NoCaching.class}) // real ones, backed by a no-op cache manager
 public class EntryControllerTest {
 
     @Autowired
@@ -76,38 +122,381 @@ public class EntryControllerTest {
     @MockBean
     private EntryService entryService;
 
+    @MockBean
+    private SearchIndexService searchIndexService;
+
+    @MockBean
+    private EntryWriteBehind entryWriteBehind; // disabled unless a test says otherwise
+
+    @MockBean
+    private EntryStatsService entryStatsService;
+
+    @MockBean
+    private EntryImport entryImport;
+
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(EntryControllerTest.class);
 
+    // nothing is kept between requests, so one test's first page can never be served to the next
+    @TestConfiguration
+    static class NoCaching {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testGetEntries() throws Exception {
 
-        List<Entry> mockEntries = List.of(
-                new Entry("Test entry 1"),
-                new Entry("Test entry 2")
-        );
+        EntryPageDTO mockPage = new EntryPageDTO(List.of(
+                new EntrySummaryDTO(1L, "Test entry 1", Instant.now()),
+                new EntrySummaryDTO(2L, "Test entry 2", Instant.now())
+        ), "next-cursor");
 
-        when(entryService.getEntriesByUser(any(User.class))).thenReturn(mockEntries);
-        logger.info("Mock entries: {}", mockEntries);
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(1L, mockPage));
+        logger.info("Mock page: {}", mockPage);
 
         this.mockMvc.perform(get("/api/v1/entries")
                 .with(csrf())
         )
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$.entries", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_PassesCursorAndLimit() throws Exception {
+
+        when(entryService.getEntryPage(any(User.class), eq("abc"), eq(10))).thenReturn(new EntryPageDTO(List.of(), null));
+
+        this.mockMvc.perform(get("/api/v1/entries")
+                .param("cursor", "abc")
+                .param("limit", "10")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(0)));
+
+        verify(entryService).getEntryPage(any(User.class), eq("abc"), eq(10));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_SetsETagFromListVersion() throws Exception {
+        when(entryStatsService.getListVersion(1L)).thenReturn(7L);
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(7L, new EntryPageDTO(List.of(), null)));
+
+        mockMvc.perform(get("/api/v1/entries"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_GzipVariantHasItsOwnETag() throws Exception {
+        when(entryStatsService.getListVersion(1L)).thenReturn(7L);
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(7L, new EntryPageDTO(List.of(), null)));
+
+        mockMvc.perform(get("/api/v1/entries").header("Accept-Encoding", "gzip").header("If-None-Match", "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-gz\""))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_HonoursGzipQValueOfZero() throws Exception {
+        when(entryStatsService.getListVersion(1L)).thenReturn(7L);
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(7L, new EntryPageDTO(List.of(), null)));
+
+        mockMvc.perform(get("/api/v1/entries").header("Accept-Encoding", "gzip;q=0, *;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.entries", hasSize(0)));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_ServesGzipWhenAccepted() throws Exception {
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(1L,
+                new EntryPageDTO(List.of(new EntrySummaryDTO(1L, "Zipped entry", Instant.now())), null)));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/entries").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(JsonPath.<String>read(json, "$.entries[0].preview")).isEqualTo("Zipped entry");
+        }
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_CursorPageGzippedOnlyWhenAccepted() throws Exception {
+        when(entryService.getEntryPage(any(User.class), eq("abc"), isNull())).thenReturn(
+                new EntryPageDTO(List.of(new EntrySummaryDTO(2L, "Later entry", Instant.now())), null));
+
+        mockMvc.perform(get("/api/v1/entries").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.entries[0].preview").value("Later entry"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/entries").param("cursor", "abc").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(JsonPath.<String>read(json, "$.entries[0].preview")).isEqualTo("Later entry");
+        }
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntries_NotModified() throws Exception {
+        when(entryStatsService.getListVersion(1L)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/entries").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified());
+
+        verify(entryService, never()).getFirstPage(any(User.class));
     }
 
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testGetEntries_NoEntries() throws Exception {
 
-        when(entryService.getEntriesByUser(any(User.class))).thenReturn(List.of());
+        when(entryService.getFirstPage(any(User.class))).thenReturn(new FirstPage(1L, new EntryPageDTO(List.of(), null)));
         mockMvc.perform(get("/api/v1/entries")
                 .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.entries", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntryStats() throws Exception {
+        when(entryStatsService.getStats(1L)).thenReturn(new EntryStatsDTO(3, 42, 100));
+
+        mockMvc.perform(get("/api/v1/entries/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryCount").value(3))
+                .andExpect(jsonPath("$.storedBytes").value(42))
+                .andExpect(jsonPath("$.maxEntries").value(100));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntries_Batch() throws Exception {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User testUser = ((JwtPrincipal) auth.getPrincipal()).toUser();
+        when(entryService.createEntries(eq(List.of("one", "two")), any(User.class))).thenReturn(List.of(
+                new Entry("one", testUser), new Entry("two", testUser)));
+
+        mockMvc.perform(post("/api/v1/entries/batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryBatchCreateDTO(List.of(new EntryDTO("one"), new EntryDTO("two"))))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].entryBody").value("two"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntries_BatchValidatesEachEntry() throws Exception {
+        mockMvc.perform(post("/api/v1/entries/batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryBatchCreateDTO(List.of(new EntryDTO("a".repeat(5001)))))))
+                .andExpect(status().isBadRequest());
+
+        verify(entryService, never()).createEntries(any(), any(User.class));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntriesByIds() throws Exception {
+        when(entryService.getEntriesByIds(1L, List.of(3L, 4L))).thenReturn(new EntryBatchDTO(
+                List.of(new EntryResponseDTO(3L, "three", "testuser", null)), List.of(4L)));
+
+        mockMvc.perform(get("/api/v1/entries").param("ids", "3,4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].entryBody").value("three"))
+                .andExpect(jsonPath("$.missing[0]").value(4));
 
+        verify(entryService, never()).getEntryPage(any(User.class), any(), any());
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetOrderedEntries_PassesCursorAndLimit() throws Exception {
+        when(entryService.getPositionPage(1L, "abc", 50)).thenReturn(new EntryPageDTO(
+                List.of(new EntrySummaryDTO(3L, "Third", Instant.now(), "ak")), "next"));
+
+        mockMvc.perform(get("/api/v1/entries/ordered").param("cursor", "abc").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].position").value("ak"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetChanges() throws Exception {
+        when(entryService.getChangesSince(1L, 4L, null)).thenReturn(new EntryChangesDTO(
+                List.of(new EntryChangeDTO(10L, "changed", Instant.now(), Instant.now(), 5L)), List.of(3L), 6L, false));
+
+        mockMvc.perform(get("/api/v1/entries/changes").param("since", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserts[0].id").value(10))
+                .andExpect(jsonPath("$.upserts[0].changeSeq").value(5))
+                .andExpect(jsonPath("$.deletes[0]").value(3))
+                .andExpect(jsonPath("$.version").value(6))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntry_QuotaExceeded() throws Exception {
+        when(entryService.createEntry(any(Entry.class), any(User.class))).thenThrow(new EntryQuotaExceededException(100));
+
+        mockMvc.perform(post("/api/v1/entries")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("one too many"))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Entry limit of 100 reached"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntry_IdempotencyKeyTooLong() throws Exception {
+        mockMvc.perform(post("/api/v1/entries")
+                .header("Idempotency-Key", "k".repeat(EntryIdempotency.MAX_KEY_LENGTH + 1))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("retried"))))
+                .andExpect(status().isBadRequest());
+        verify(entryService, never()).createEntry(any(Entry.class), any(User.class));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntry_WriteBehind() throws Exception {
+        User testUser = ((JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).toUser();
+        when(entryWriteBehind.isEnabled()).thenReturn(true);
+        when(entryWriteBehind.create("grouped", testUser)).thenReturn(new Entry("grouped", testUser));
+
+        mockMvc.perform(post("/api/v1/entries")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("grouped"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.entryBody").value("grouped"));
+        verify(entryService, never()).createEntry(any(Entry.class), any(User.class));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testCreateEntry_WriteBehindQueueFull() throws Exception {
+        when(entryWriteBehind.isEnabled()).thenReturn(true);
+        when(entryWriteBehind.create(any(String.class), any(User.class))).thenThrow(new EntryWriteQueueFullException());
+
+        mockMvc.perform(post("/api/v1/entries")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("one more"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testSearchEntries() throws Exception {
+        when(searchIndexService.search(1L, "milk", null)).thenReturn(List.of(
+                new EntrySearchResultDTO(new EntryResponseDTO(3L, "buy milk", "testuser", null), 1.5)));
+
+        mockMvc.perform(get("/api/v1/entries/search").param("q", "milk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].entry.id").value(3))
+                .andExpect(jsonPath("$[0].score").value(1.5));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testExportEntries_Ndjson() throws Exception {
+        User testUser = ((JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).toUser();
+        stubExport(testUser, new Entry("first", testUser), new Entry("second", testUser));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/entries/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andExpect(content().string(containsString("\"entryBody\":\"first\"")))
+                .andExpect(content().string(containsString("}\n{")))
+                .andExpect(content().string(containsString("\"entryBody\":\"second\"")));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testExportEntries_CsvQuotesBodies() throws Exception {
+        User testUser = ((JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).toUser();
+        Entry entry = new Entry("say \"hi\", then leave", testUser);
+        entry.setId(5L);
+        stubExport(testUser, entry);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/entries/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id,createdAt,entryBody")))
+                .andExpect(content().string(containsString("5,null,\"say \"\"hi\"\", then leave\"")));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testImportEntries_StreamsBodyToImporter() throws Exception {
+        EntryImportResultDTO imported = new EntryImportResultDTO(2, 1, 1,
+                List.of(new EntryImportResultDTO.RowError(3, "Entry cannot exceed 5000 characters")), 10);
+        when(entryImport.importEntries(any(User.class), any(), eq("csv"))).thenReturn(imported);
+
+        mockMvc.perform(post("/api/v1/entries/import")
+                .with(csrf())
+                .param("format", "csv")
+                .contentType("text/csv")
+                .content("entryBody\nfirst\nsecond\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.rowsPerSecond").value(200));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testExportEntries_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/entries/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubExport(User user, Entry... entries) {
+        doAnswer(invocation -> {
+            Consumer<Entry> sink = invocation.getArgument(1);
+            for (Entry entry : entries) {
+                sink.accept(entry);
+            }
+            return null;
+        }).when(entryService).exportEntries(eq(user.getId()), any(Consumer.class));
     }
 
     /* 
@@ -135,8 +524,8 @@ public class EntryControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testCreateEntry() throws Exception {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        User testUser = principal.toUser();
         Entry newEntry = new Entry("Test entry body", testUser);
         String newEntryJson = objectMapper.writeValueAsString(newEntry);
         when(entryService.createEntry(any(Entry.class), any(User.class))).thenReturn(newEntry);
@@ -154,8 +543,8 @@ public class EntryControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testCreateEntry_ValidationError_EntryTooLong() throws Exception {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        User testUser = principal.toUser();
         String body5001 = "a".repeat(5001);
         Entry invalidEntry = new Entry(body5001, testUser);
         String invalidJson = objectMapper.writeValueAsString(invalidEntry);
@@ -171,8 +560,8 @@ public class EntryControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testCreateEntry_EmptyEntry() throws Exception {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        User testUser = principal.toUser();
         String emptyBody = "";
         Entry emptyEntry = new Entry(emptyBody, testUser);
         String emptyJson = objectMapper.writeValueAsString(emptyEntry);
@@ -188,13 +577,8 @@ public class EntryControllerTest {
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testUpdateEntry_Unauthorized() throws Exception {
-
-        User otherUser = new User("otheruser", "password");
-        otherUser.setId(2L);
-        Entry entryOwnedByOther = new Entry("Other's entry", otherUser);
-        entryOwnedByOther.setId(1L);
-
-        when(entryService.getEntryById(1L)).thenReturn(Optional.of(entryOwnedByOther));
+        when(entryService.updateEntryById(1L, 1L, "I've been updated", null))
+                .thenThrow(new UnauthorizedAccessException("You do not have permission to update this entry."));
 
         EntryDTO updateDTO = new EntryDTO();
         updateDTO.setEntryBody("I've been updated");
@@ -206,7 +590,6 @@ public class EntryControllerTest {
                 .content(updateJson))
                 .andExpect(status().isForbidden());
 
-        verify(entryService).getEntryById(1L);
     }
 
     @Test
@@ -215,27 +598,21 @@ public class EntryControllerTest {
         EntryDTO updateDTO = new EntryDTO();
         updateDTO.setEntryBody("I've been updated");
         String updateJson = objectMapper.writeValueAsString(updateDTO);
-        when(entryService.getEntryById(any(Long.class))).thenReturn(Optional.empty());
+        when(entryService.updateEntryById(eq(1L), eq(1L), any(String.class), isNull())).thenThrow(new EntryNotFoundException(1L));
         this.mockMvc.perform(put("/api/v1/entries/{entryId}", 1L)
                 .with(csrf())
                 .contentType("application/json")
                 .content(updateJson
                 ))
                 .andExpect(status().isNotFound());
-        verify(entryService).getEntryById(1L);
+        verify(entryService).updateEntryById(eq(1L), eq(1L), any(String.class), isNull());
     }
 
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testUpdateEntry() throws Exception {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
-        Entry newEntry = new Entry("Update me", testUser);
-        newEntry.setId(1L);
-        Entry updatedEntry = new Entry("I've been updated", testUser);
-        when(entryService.getEntryById(eq(1L))).thenReturn(Optional.of(newEntry));
-        when(entryService.updateEntryById(eq(1L), any(String.class))).thenReturn(updatedEntry);
+        when(entryService.updateEntryById(eq(1L), eq(1L), any(String.class), isNull()))
+                .thenReturn(new EntryResponseDTO(1L, "I've been updated", "testuser", Instant.now(), 4L));
 
         EntryDTO updateDTO = new EntryDTO(); // for serialization
         updateDTO.setEntryBody("I've been updated");
@@ -247,50 +624,153 @@ public class EntryControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$.entryBody").value("I've been updated"))
-                .andExpect(jsonPath("$.username").value("testuser"));
-        verify(entryService).updateEntryById(eq(1L), eq("I've been updated"));
-        verify(entryService).getEntryById(eq(1L));
+                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.version").value(4))
+                .andExpect(header().string("ETag", "\"4\""));
+        verify(entryService).updateEntryById(eq(1L), eq(1L), eq("I've been updated"), isNull());
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testUpdateEntry_IfMatchConflict() throws Exception {
+        when(entryService.updateEntryById(eq(1L), eq(1L), any(String.class), eq(3L)))
+                .thenThrow(new EntryVersionMismatchException(1L, 3L));
+
+        this.mockMvc.perform(put("/api/v1/entries/{entryId}", 1L)
+                .with(csrf())
+                .header("If-Match", "\"3\"")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("stale edit"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412))
+                .andExpect(jsonPath("$.message").value("Entry 1 has changed since version 3"));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testUpdateEntry_WeakIfMatchNeverMatches() throws Exception {
+        this.mockMvc.perform(put("/api/v1/entries/{entryId}", 1L)
+                .with(csrf())
+                .header("If-Match", "W/\"3\"")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new EntryDTO("weak edit"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(entryService, never()).updateEntryById(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testDeleteEntry_MalformedIfMatch() throws Exception {
+        this.mockMvc.perform(delete("/api/v1/entries/{entryId}", 1L)
+                .with(csrf())
+                .header("If-Match", "\"abc\""))
+                .andExpect(status().isBadRequest());
+
+        verify(entryService, never()).deleteEntryById(any(), any(), any());
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testPatchEntry() throws Exception {
+        when(entryService.patchEntryById(eq(1L), eq(1L), eq(4L), any()))
+                .thenReturn(new EntryResponseDTO(1L, "buy bread", "testuser", Instant.now(), 5L));
+
+        this.mockMvc.perform(patch("/api/v1/entries/{entryId}", 1L)
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"baseVersion\": 4, \"edits\": [{\"at\": 4, \"delete\": 4, \"insert\": \"bread\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryBody").value("buy bread"))
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testPatchEntry_RequiresBaseVersion() throws Exception {
+        this.mockMvc.perform(patch("/api/v1/entries/{entryId}", 1L)
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"edits\": [{\"at\": 0, \"insert\": \"x\"}]}"))
+                .andExpect(status().isBadRequest());
+        verify(entryService, never()).patchEntryById(any(), any(), any(Long.class), any());
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testRestoreEntry() throws Exception {
+        when(entryService.restoreEntryById(1L, 7L)).thenReturn(new EntryResponseDTO(7L, "back again", "testuser", Instant.now(), 2L));
+
+        this.mockMvc.perform(post("/api/v1/entries/{entryId}/restore", 7L)
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryBody").value("back again"))
+                .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testMoveEntry() throws Exception {
+        this.mockMvc.perform(post("/api/v1/entries/{entryId}/move", 7L)
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"afterId\": 3, \"beforeId\": 4}"))
+                .andExpect(status().isNoContent());
+
+        verify(entryService).moveEntry(1L, 7L, 3L, 4L);
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntry_ReturnsFullBody() throws Exception {
+        when(entryService.getOwnedEntry(1L, 1L)).thenReturn(
+                new EntryResponseDTO(1L, "First line\nSecond line", "testuser", Instant.now(), 3L));
+
+        this.mockMvc.perform(get("/api/v1/entries/{entryId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryBody").value("First line\nSecond line"))
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testGetEntry_OtherUsersEntry() throws Exception {
+        when(entryService.getOwnedEntry(1L, 1L))
+                .thenThrow(new UnauthorizedAccessException("You do not have permission to view this entry."));
+
+        this.mockMvc.perform(get("/api/v1/entries/{entryId}", 1L))
+                .andExpect(status().isForbidden());
     }
 
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testDeleteEntry() throws Exception {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
-        Entry entryToDelete = new Entry("Entry to delete", testUser);
-        when(entryService.getEntryById(1L)).thenReturn(Optional.of(entryToDelete));
         this.mockMvc.perform(delete("/api/v1/entries/{entryId}", 1L)
                 .with(csrf())
                 .contentType("application/json")
                 .content("{}"))
                 .andExpect(status().isNoContent());
 
-        verify(entryService).deleteEntryById(1L);
+        verify(entryService).deleteEntryById(1L, 1L, null);
 
     }
 
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testDeleteEntry_Unauthorized() throws Exception {
-        User otherUser = new User("otheruser", "password");
-        otherUser.setId(2L);
-        Entry entryOwnedByOther = new Entry("Entry by other user", otherUser);
-        entryOwnedByOther.setId(1L);
-
-        when(entryService.getEntryById(1L)).thenReturn(Optional.of(entryOwnedByOther));
+        doThrow(new UnauthorizedAccessException("You do not have permission to delete this entry."))
+                .when(entryService).deleteEntryById(1L, 1L, null);
 
         mockMvc.perform(delete("/api/v1/entries/{entryId}", 1L)
                 .with(csrf()))
                 .andExpect(status().isForbidden());
-
-        verify(entryService).getEntryById(1L);
     }
 
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testDeleteEntry_NotFound() throws Exception {
-        when(entryService.getEntryById(1L)).thenReturn(Optional.empty());
+        doThrow(new EntryNotFoundException(1L)).when(entryService).deleteEntryById(1L, 1L, null);
 
         mockMvc.perform(delete("/api/v1/entries/{entryId}", 1L)
                 .with(csrf()))
@@ -300,8 +780,8 @@ public class EntryControllerTest {
     @Test
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testHandleEntryNotFoundException_ThroughController() throws Exception {
-        // Simulate service returning empty Optional, causing EntryNotFoundException
-        when(entryService.getEntryById(999L)).thenReturn(Optional.empty());
+        // Simulate the owner-scoped update finding no such entry
+        when(entryService.updateEntryById(eq(1L), eq(999L), any(String.class), isNull())).thenThrow(new EntryNotFoundException(999L));
 
         EntryDTO updateDTO = new EntryDTO("new body");
         String json = objectMapper.writeValueAsString(updateDTO);
@@ -320,11 +800,8 @@ public class EntryControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testHandleUnauthorizedAccessException_ThroughController() throws Exception {
         // Simulate Entry belonging to another user
-        User otherUser = new User("otheruser", "password");
-        otherUser.setId(2L);
-        Entry entryOwnedByOther = new Entry("Secret", otherUser);
-        entryOwnedByOther.setId(10L);
-        when(entryService.getEntryById(10L)).thenReturn(Optional.of(entryOwnedByOther));
+        when(entryService.updateEntryById(eq(1L), eq(10L), any(String.class), isNull()))
+                .thenThrow(new UnauthorizedAccessException("You do not have permission to update this entry."));
 
         EntryDTO dto = new EntryDTO("trying to update someone else’s entry");
         String json = objectMapper.writeValueAsString(dto);
@@ -363,7 +840,7 @@ public class EntryControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testHandleGlobalException_ThroughController() throws Exception {
         // Simulate service throwing generic exception
-        when(entryService.getEntriesByUser(any(User.class)))
+        when(entryService.getFirstPage(any(User.class)))
                 .thenThrow(new RuntimeException("Unexpected DB failure"));
 
         mockMvc.perform(get("/api/v1/entries").with(csrf()))
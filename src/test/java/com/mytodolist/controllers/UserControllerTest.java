@@ -10,6 +10,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -21,7 +25,7 @@ import com.mytodolist.security.config.JwtAuthenticationEntryPoint;
 import com.mytodolist.security.config.JwtConfig;
 import com.mytodolist.security.filters.JwtAuthFilter;
 import com.mytodolist.security.services.JwtUtilityService;
-import com.mytodolist.security.userdetails.TodoUserDetails;
+import com.mytodolist.security.userdetails.JwtPrincipal;
 import com.mytodolist.security.userdetails.TodoUserDetailsService;
 import com.mytodolist.services.EntryService;
 import com.mytodolist.services.UserService;
@@ -50,8 +54,8 @@ public class UserControllerTest {
     @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
     public void testGetUserProfile() throws Exception {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        TodoUserDetails principal = (TodoUserDetails) auth.getPrincipal();
-        User testUser = principal.getUser();
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        User testUser = principal.toUser();
 
         this.mockMvc.perform(get("/api/v1/users/me")
                 .with(csrf())
@@ -59,8 +63,20 @@ public class UserControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.username").value("testuser"));
+                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.roles[0]").value("USER"));
 
+        verify(userService, never()).findByUsername(any());
+
+    }
+
+    @Test
+    @WithCustomUser(username = "testuser", roles = {"USER"}, password = "password")
+    public void testDeleteCurrentUser_Accepted() throws Exception {
+        this.mockMvc.perform(delete("/api/v1/users/me").with(csrf()))
+                .andExpect(status().isAccepted());
+
+        verify(userService).deleteUser(1L);
     }
 
     @Test
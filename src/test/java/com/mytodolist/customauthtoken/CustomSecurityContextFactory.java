@@ -2,17 +2,13 @@ package com.mytodolist.customauthtoken;
 
 import java.util.Set;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithSecurityContextFactory;
 
-import com.mytodolist.models.User;
-import com.mytodolist.security.services.RoleService;
-import com.mytodolist.security.userdetails.TodoUserDetails;
+import com.mytodolist.security.userdetails.JwtPrincipal;
 
 public class CustomSecurityContextFactory
         implements WithSecurityContextFactory<WithCustomUser> {
@@ -27,14 +23,8 @@ public class CustomSecurityContextFactory
         String[] roles = customUser.roles();
         String password = customUser.password();
 
-        User user = new User(username, password);
-        user.setId(1L);
-
-        RoleService roleService = mock(RoleService.class);
-        when(roleService.getUserRoles(user.getId()))
-                .thenReturn(Set.of(roles));
-
-        TodoUserDetails principal = new TodoUserDetails(user, roleService);
+        // what JwtAuthFilter builds from a verified access token
+        JwtPrincipal principal = new JwtPrincipal(1L, username, Set.of(roles));
 
         Authentication auth = new UsernamePasswordAuthenticationToken(principal, password, principal.getAuthorities());
 
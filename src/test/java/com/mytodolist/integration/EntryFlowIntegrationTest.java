@@ -1,6 +1,9 @@
 package com.mytodolist.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.notNullValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +17,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -74,9 +78,108 @@ public class EntryFlowIntegrationTest {
                 .with(csrf())
                 .header("Authorization", "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].entryBody").value("This is a test entry."));
+                .andExpect(jsonPath("$.entries.length()").value(1))
+                .andExpect(jsonPath("$.entries[0].preview").value("This is a test entry."))
+                .andExpect(jsonPath("$.entries[0].entryBody").doesNotExist());
+
+    }
+
+    @Test
+    void testGetEntry_ReturnsFullBodyBehindPreview() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Title line\\nand the rest of the body\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Integer entryId = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+
+        mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[1].preview").value("Title line"));
+
+        mockMvc.perform(get("/api/v1/entries/" + entryId)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryBody").value("Title line\nand the rest of the body"));
+    }
+
+    @Test
+    void testImportEntries_Ndjson() throws Exception {
+        mockMvc.perform(post("/api/v1/entries/import")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"entryBody\": \"imported one\"}\nnot json\n{\"entryBody\": \"imported two\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(3));
+    }
+
+    @Test
+    void testMoveEntry_ChangesPositionOrder() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/entries")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        Integer firstId = JsonPath.read(first.getResponse().getContentAsString(), "$.entries[0].id");
+        Integer secondId = createEntry("second");
+        Integer thirdId = createEntry("third");
+        MvcResult beforeMoves = mockMvc.perform(get("/api/v1/entries/changes")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        Integer version = JsonPath.read(beforeMoves.getResponse().getContentAsString(), "$.version");
+
+        mockMvc.perform(post("/api/v1/entries/" + thirdId + "/move")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"beforeId\": " + firstId + "}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/v1/entries/" + firstId + "/move")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"afterId\": " + thirdId + ", \"beforeId\": " + secondId + "}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/entries/query?sort=position")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(thirdId))
+                .andExpect(jsonPath("$[1].id").value(firstId))
+                .andExpect(jsonPath("$[2].id").value(secondId));
 
+        // both moved rows come back with their new keys, plus any row a rebalance re-keyed on the way
+        mockMvc.perform(get("/api/v1/entries/changes")
+                .param("since", String.valueOf(version))
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserts[*].id", hasItems(thirdId, firstId)))
+                .andExpect(jsonPath("$.upserts[*].position", everyItem(notNullValue())));
+    }
+
+    private Integer createEntry(String body) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"" + body + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return JsonPath.read(created.getResponse().getContentAsString(), "$.id");
     }
 
     @Test
@@ -100,7 +203,235 @@ public class EntryFlowIntegrationTest {
                 .with(csrf())
                 .header("Authorization", "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.entries.length()").value(2));
+    }
+
+    @Test
+    void testGetEntries_PaginatesWithCursor() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/entries")
+                    .with(csrf())
+                    .header("Authorization", "Bearer " + accessToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"entryBody\": \"Paged entry " + i + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/entries")
+                .param("limit", "2")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/api/v1/entries")
+                .param("limit", "2")
+                .param("cursor", nextCursor)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(1))
+                .andExpect(jsonPath("$.entries[0].preview").value("Paged entry 1"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetEntries_InvalidCursor_Returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/entries")
+                .param("cursor", "not-a-cursor")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchEntries_FindsCreatedAndUpdatedBodies() throws Exception {
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Buy oat milk and bread\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/entries/search")
+                .param("q", "milk")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].entry.entryBody").value("Buy oat milk and bread"));
+
+        mockMvc.perform(get("/api/v1/entries/search")
+                .param("q", "spaceship")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/v1/entries/search")
+                .param("q", "milk")
+                .param("limit", "0")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateEntry_ReusedIdempotencyKeyWithAnotherBodyIsUnprocessable() throws Exception {
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Idempotency-Key", "create-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Buy oat milk\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Idempotency-Key", "create-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Buy bread\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different entry"));
+    }
+
+    @Test
+    void testEntryStats_TracksWrites() throws Exception {
+        mockMvc.perform(get("/api/v1/entries/stats")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryCount").value(1))
+                .andExpect(jsonPath("$.storedBytes").value("This is a test entry.".length()));
+
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"four\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/entries/stats")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryCount").value(2))
+                .andExpect(jsonPath("$.storedBytes").value("This is a test entry.".length() + 4));
+    }
+
+    @Test
+    void testGetEntries_ConditionalGet() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Changes the list.\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(2));
+    }
+
+    @Test
+    void testGetChanges_ReturnsOnlyWritesSinceVersion() throws Exception {
+        MvcResult initial = mockMvc.perform(get("/api/v1/entries/changes")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserts.length()").value(1))
+                .andExpect(jsonPath("$.deletes.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn();
+        Integer entryId = JsonPath.read(initial.getResponse().getContentAsString(), "$.upserts[0].id");
+        Integer version = JsonPath.read(initial.getResponse().getContentAsString(), "$.version");
+
+        mockMvc.perform(post("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Written after the sync.\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete("/api/v1/entries/" + entryId)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/entries/changes")
+                .param("since", String.valueOf(version))
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserts.length()").value(1))
+                .andExpect(jsonPath("$.upserts[0].entryBody").value("Written after the sync."))
+                .andExpect(jsonPath("$.deletes[0]").value(entryId))
+                .andExpect(jsonPath("$.version").value(version + 2));
+    }
+
+    @Test
+    void testBulkUpdateAndDelete_OnlyTouchOwnRows() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/entries/batch")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entries\": [{\"entryBody\": \"first\"}, {\"entryBody\": \"second\"}]}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Integer firstId = JsonPath.read(created.getResponse().getContentAsString(), "$[0].id");
+        Integer secondId = JsonPath.read(created.getResponse().getContentAsString(), "$[1].id");
+        String longBody = "A long pasted note that will be stored compressed. ".repeat(40);
+
+        mockMvc.perform(put("/api/v1/entries/bulk")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.Map.of("entries", java.util.List.of(
+                        java.util.Map.of("id", firstId, "entryBody", longBody),
+                        java.util.Map.of("id", 999999, "entryBody", "nope"))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+
+        mockMvc.perform(get("/api/v1/entries/" + firstId)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryBody").value(longBody));
+
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete("/api/v1/entries")
+                .param("ids", firstId + "," + secondId)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+
+        mockMvc.perform(get("/api/v1/entries/stats")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryCount").value(1));
     }
 
     @Test
@@ -112,7 +443,7 @@ public class EntryFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$[0].id");
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
 
         mockMvc.perform(put("/api/v1/entries/" + entryId)
                 .with(csrf())
@@ -128,11 +459,46 @@ public class EntryFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        String updatedEntryBody = JsonPath.read(updatedEntry.getResponse().getContentAsString(), "$[0].entryBody");
+        String updatedEntryBody = JsonPath.read(updatedEntry.getResponse().getContentAsString(), "$.entries[0].preview");
 
         assertThat(updatedEntryBody.equals("Updated test entry."));
     }
 
+    @Test
+    void testUpdateEntry_StaleIfMatch_Returns412() throws Exception {
+        MvcResult entriesResult = mockMvc.perform(get("/api/v1/entries")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
+
+        String etag = mockMvc.perform(get("/api/v1/entries/" + entryId)
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/api/v1/entries/" + entryId) // first writer wins
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"First edit.\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/v1/entries/" + entryId) // second writer still holds the old ETag
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"entryBody\": \"Second edit.\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/entries/" + entryId)
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.entryBody").value("First edit."));
+    }
+
     @Test
     void testUpdateEntry_AlterOtherUser_Returns403() throws Exception {
         // Register and login as a different user
@@ -161,7 +527,7 @@ public class EntryFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$[0].id");
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
 
         mockMvc.perform(put("/api/v1/entries/" + entryId) // user2 tries to update user1s entry
                 .with(csrf())
@@ -180,7 +546,7 @@ public class EntryFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$[0].id");
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
 
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete("/api/v1/entries/" + entryId)
                 .with(csrf())
@@ -191,7 +557,37 @@ public class EntryFlowIntegrationTest {
                 .with(csrf())
                 .header("Authorization", "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(0));
+                .andExpect(jsonPath("$.entries.length()").value(0));
+    }
+
+    @Test
+    void testDeleteThenRestore_BringsTheEntryBack() throws Exception {
+        MvcResult entriesResult = mockMvc.perform(get("/api/v1/entries")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
+
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete("/api/v1/entries/" + entryId)
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/entries/" + entryId)
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/v1/entries/" + entryId + "/restore")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/entries")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(1));
+        mockMvc.perform(get("/api/v1/entries/stats")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.entryCount").value(1));
     }
 
     @Test
@@ -222,7 +618,7 @@ public class EntryFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$[0].id");
+        Integer entryId = JsonPath.read(entriesResult.getResponse().getContentAsString(), "$.entries[0].id");
 
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete("/api/v1/entries/" + entryId) // user2 tries to delete user1s entry
                 .with(csrf())
@@ -10,6 +10,8 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -17,7 +19,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
+import com.mytodolist.models.AccountDeletion;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.User;
+import com.mytodolist.repositories.AccountDeletionRepository;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.UserRepository;
 import com.mytodolist.security.dtos.RegisterRequestDTO;
+import com.mytodolist.services.AccountDeletionService;
+import com.mytodolist.services.EntryService;
 
 import jakarta.transaction.Transactional;
 
@@ -32,9 +42,23 @@ public class UserFlowIntegrationTest {
     MockMvc mockMvc;
     @Autowired
     ObjectMapper objectMapper;
+    @Autowired
+    AccountDeletionService accountDeletionService;
+    @Autowired
+    AccountDeletionRepository accountDeletionRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    EntryRepository entryRepository;
+    @Autowired
+    EntryService entryService;
 
     private String accessToken;
 
+    private String credentials;
+
+    private Long userId;
+
     private String testUsername;
 
     @BeforeEach
@@ -59,6 +83,8 @@ public class UserFlowIntegrationTest {
                 .andReturn();
 
         accessToken = JsonPath.read(loginResult.getResponse().getContentAsString(), "$.accessToken");
+        userId = ((Number) JsonPath.read(loginResult.getResponse().getContentAsString(), "$.userId")).longValue();
+        credentials = testUserandPassword;
 
     }
 
@@ -69,6 +95,7 @@ public class UserFlowIntegrationTest {
                 .header("Authorization", "Bearer " + accessToken)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(userId))
                 .andExpect(jsonPath("$.username").value(testUsername));
     }
 
@@ -89,5 +116,71 @@ public class UserFlowIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized());
     }
+    @Test
+    void testDeleteMe_DisablesAccountThenRemovesItInChunks() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/v1/entries")
+                    .with(csrf())
+                    .header("Authorization", "Bearer " + accessToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"entryBody\": \"entry " + i + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(delete("/api/v1/users/me")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isAccepted());
+
+        // disabled at once: the old token and a fresh login are both refused
+        mockMvc.perform(get("/api/v1/users/me")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/v1/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(credentials))
+                .andExpect(status().isUnauthorized());
+
+        // a chunk of one entry at a time: three entry chunks before the phase moves on
+        for (int i = 0; i < 3; i++) {
+            assertThat(accountDeletionService.deleteNextChunk(userId, 1)).isFalse();
+        }
+        assertThat(accountDeletionRepository.findById(userId).get().getRemovedRows()).isEqualTo(3);
+        assertThat(entryRepository.findAccountEntryIds(userId, 10)).isEmpty();
+
+        int chunks = 0;
+        while (!accountDeletionService.deleteNextChunk(userId, 1)) {
+            chunks++;
+        }
+        assertThat(chunks).isLessThanOrEqualTo(AccountDeletion.Phase.values().length);
+        assertThat(accountDeletionRepository.findById(userId)).isEmpty();
+        assertThat(userRepository.findByUsername(testUsername)).isEmpty();
+    }
+
+    @Test
+    void testDeleteMe_EntryWrittenDuringTheDeletionIsRemovedToo() throws Exception {
+        mockMvc.perform(delete("/api/v1/users/me")
+                .with(csrf())
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isAccepted());
+        while (accountDeletionRepository.findById(userId).get().getPhase() != AccountDeletion.Phase.ACCOUNT) {
+            accountDeletionService.deleteNextChunk(userId, 10);
+        }
+
+        // an import chunk or write-behind create that was already past the filter
+        User user = userRepository.findById(userId).get();
+        entryService.createEntry(new Entry("late entry", user), user);
+
+        assertThat(accountDeletionService.deleteNextChunk(userId, 10)).isFalse();
+        assertThat(accountDeletionRepository.findById(userId).get().getPhase()).isEqualTo(AccountDeletion.Phase.ENTRIES);
+        while (!accountDeletionService.deleteNextChunk(userId, 10)) {
+            // runs through the phases again
+        }
+        assertThat(entryRepository.findAccountEntryIds(userId, 10)).isEmpty();
+        assertThat(accountDeletionRepository.findById(userId)).isEmpty();
+        assertThat(userRepository.findByUsername(testUsername)).isEmpty();
+    }
     //git testing
 }
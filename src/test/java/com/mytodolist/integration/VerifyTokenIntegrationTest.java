@@ -3,6 +3,7 @@ package com.mytodolist.integration;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import org.junit.jupiter.api.Test;
@@ -122,7 +123,7 @@ public class VerifyTokenIntegrationTest {
         Clock pastClock = Clock.fixed(timeNow.minusMillis(2 * jwtConfig.getExpiration()), ZoneOffset.UTC); // because my clock is standardized to UTC
         JwtUtilityService expiredJwtUtilityService = new JwtUtilityService(jwtConfig, pastClock);
         User user = new User("testuser", "Password1");
-        String expiredToken = expiredJwtUtilityService.generateToken(user);
+        String expiredToken = expiredJwtUtilityService.generateToken(user, Set.of("ROLE_USER"));
 
         assertFalse(jwtUtilityService.validateToken(expiredToken));
 
@@ -0,0 +1,45 @@
+package com.mytodolist.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+public class EntryBodyConverterTest {
+
+    private final EntryBodyConverter converter = new EntryBodyConverter();
+
+    @Test
+    public void testShortBodyIsStoredRaw() {
+        byte[] data = converter.convertToDatabaseColumn("buy milk");
+
+        assertThat(data[0]).isEqualTo(EntryBodyConverter.RAW);
+        assertThat(data).hasSize("buy milk".length() + 1);
+        assertThat(converter.convertToEntityAttribute(data)).isEqualTo("buy milk");
+    }
+
+    @Test
+    public void testLongBodyIsDeflated() {
+        String body = "Meeting notes: discussed the quarterly roadmap and the release schedule. ".repeat(60);
+
+        byte[] data = converter.convertToDatabaseColumn(body);
+
+        assertThat(data[0]).isEqualTo(EntryBodyConverter.DEFLATED);
+        assertThat(data.length).isLessThan(body.length() / 4);
+        assertThat(converter.convertToEntityAttribute(data)).isEqualTo(body);
+    }
+
+    @Test
+    public void testMultiByteTextRoundTrips() {
+        String body = "日本語のメモ 🎉 ".repeat(200);
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(body))).isEqualTo(body);
+    }
+
+    @Test
+    public void testUnknownHeaderIsRejected() {
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(new byte[]{7, 1, 2}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Unknown entry body format 7");
+    }
+
+}
@@ -1,5 +1,204 @@
 package com.mytodolist.repository;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.User;
+import com.mytodolist.repositories.EntryFilter;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntrySort;
+
+/*
+ * Criteria values are inlined so the captured SQL can be handed to H2's EXPLAIN as is; only the
+ * row limit stays a JDBC parameter.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.mytodolist.repository.CapturingStatementInspector",
+    "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
 public class EntryRepositoryTest {
 
+    @Autowired
+    private EntryRepository entryRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        for (int u = 0; u < 3; u++) {
+            User user = testEntityManager.persist(new User("explainuser" + u, "Password1"));
+            for (int i = 0; i < 100; i++) {
+                testEntityManager.persist(new Entry((i % 2 == 0 ? "Meeting " : "Groceries ") + i, user));
+            }
+            owner = user;
+        }
+        testEntityManager.flush();
+    }
+
+    @Test
+    void testFindFiltered_AppliesRangePrefixAndSort() {
+        List<EntrySummaryDTO> rows = entryRepository.findFiltered(owner.getId(),
+                new EntryFilter(null, null, "Meeting 1", EntrySort.PREVIEW_ASC), 5);
+
+        assertThat(rows).extracting(EntrySummaryDTO::getPreview)
+                .containsExactly("Meeting 10", "Meeting 12", "Meeting 14", "Meeting 16", "Meeting 18");
+    }
+
+    @Test
+    void testFindFiltered_EscapesLikeWildcards() {
+        assertThat(entryRepository.findFiltered(owner.getId(),
+                new EntryFilter(null, null, "Meet%", EntrySort.CREATED_ASC), 5)).isEmpty();
+    }
+
+    /*
+     * Where the filter itself picks the index (a created_at range, a preview prefix) the plan has to name
+     * that composite index, so dropping or renaming it fails here. A user-only filter leaves the choice to
+     * the ORDER BY, which H2's cost model only credits when it matches an index from its first column: the
+     * sort keys come after user_id, so H2 settles on the single-column foreign key or deleted_at index,
+     * whatever the composites offer. Those sorts name their index in a USE INDEX hint instead, which H2
+     * rejects for an index that does not exist, and the plan has to seek on user_id through it.
+     */
+    @Test
+    void testFindFiltered_SupportedFiltersUseTheirIndexes() {
+        Instant now = Instant.now();
+        Instant from = now.minus(1, ChronoUnit.DAYS);
+        Instant to = now.plus(1, ChronoUnit.DAYS);
+        String created = "idx_entries_user_created_id";
+        String preview = "idx_entries_user_preview";
+
+        assertServedBy("user only", new EntryFilter(null, null, null, EntrySort.CREATED_ASC), created, "created_at");
+        assertServedBy("newest first", new EntryFilter(null, null, null, EntrySort.CREATED_DESC), created, "created_at");
+        assertServedBy("recently updated", new EntryFilter(null, null, null, EntrySort.UPDATED_DESC),
+                "idx_entries_user_updated_id", "updated_at");
+        assertServedBy("manual order", new EntryFilter(null, null, null, EntrySort.POSITION_ASC),
+                "idx_entries_user_position", "position");
+        assertUsesIndex("created range", new EntryFilter(from, to, null, EntrySort.CREATED_ASC), List.of(created));
+        assertUsesIndex("created range newest first", new EntryFilter(from, to, null, EntrySort.CREATED_DESC), List.of(created));
+        assertUsesIndex("open ended range", new EntryFilter(from, null, null, EntrySort.CREATED_DESC), List.of(created));
+        assertUsesIndex("prefix", new EntryFilter(null, null, "Meeting", EntrySort.PREVIEW_ASC), List.of(preview));
+        assertUsesIndex("prefix in range", new EntryFilter(from, to, "Meeting", EntrySort.CREATED_ASC), List.of(created, preview));
+    }
+
+    @Test
+    void testPositionOrder_UnkeyedRowsComeFirstOnEveryPath() {
+        List<Entry> entries = entryRepository.findByUserId(owner.getId());
+        entryRepository.updatePosition(owner.getId(), entries.get(0).getId(), "aj", 1L);
+        entryRepository.updatePosition(owner.getId(), entries.get(1).getId(), "ai", 1L);
+        testEntityManager.clear();
+        List<Long> expected = entryRepository.findIdsInPositionOrder(owner.getId());
+
+        assertThat(expected.subList(98, 100)).containsExactly(entries.get(1).getId(), entries.get(0).getId());
+        assertThat(entryRepository.findFiltered(owner.getId(), new EntryFilter(null, null, null, EntrySort.POSITION_ASC), 200))
+                .extracting(EntrySummaryDTO::getId).containsExactlyElementsOf(expected);
+
+        List<Long> paged = new ArrayList<>();
+        List<EntrySummaryDTO> page = entryRepository.findFirstPositionPageByUserId(owner.getId(), Limit.of(30));
+        while (!page.isEmpty()) {
+            page.forEach(row -> paged.add(row.getId()));
+            EntrySummaryDTO last = page.get(page.size() - 1);
+            page = last.getPosition() == null
+                    ? entryRepository.findPositionPageByUserIdAfterUnkeyed(owner.getId(), last.getId(), Limit.of(30))
+                    : entryRepository.findPositionPageByUserIdAfter(owner.getId(), last.getPosition(), last.getId(),
+                            Limit.of(30));
+        }
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testSoftDelete_HidesTheRowUntilRestoredOrPurged() {
+        Long id = testEntityManager.persistAndFlush(new Entry("Soft delete me", owner)).getId();
+        Instant deletedAt = Instant.now();
+
+        assertThat(entryRepository.softDeleteByUserIdAndIdIn(owner.getId(), List.of(id), deletedAt)).isEqualTo(1);
+        assertThat(entryRepository.findById(id)).isEmpty();
+        assertThat(entryRepository.findResponsesByUserIdAndIdIn(owner.getId(), List.of(id))).isEmpty();
+        assertThat(entryRepository.findDeleted(owner.getId(), id)).get()
+                .extracting(EntryResponseDTO::getEntryBody).isEqualTo("Soft delete me");
+        assertThat(entryRepository.findDeleted(-1L, id)).isEmpty();
+
+        assertThat(entryRepository.restore(owner.getId(), id, 99L, Instant.now())).isEqualTo(1);
+        assertThat(entryRepository.findById(id)).get().extracting(Entry::getChangeSeq).isEqualTo(99L);
+
+        testEntityManager.clear();
+        entryRepository.softDeleteByUserIdAndIdIn(owner.getId(), List.of(id), deletedAt);
+        assertThat(entryRepository.findPurgeable(deletedAt.minusSeconds(1), 10)).isEmpty();
+        assertThat(entryRepository.findPurgeable(deletedAt.plusSeconds(1), 10)).containsExactly(id);
+        assertThat(entryRepository.purge(List.of(id))).isEqualTo(1);
+        assertThat(entryRepository.findDeleted(owner.getId(), id)).isEmpty();
+    }
+
+    @Test
+    void testUpdateBodies_RoundTripsEncodedBodies() {
+        Long shortId = testEntityManager.persistAndFlush(new Entry("Short", owner)).getId();
+        Long longId = testEntityManager.persistAndFlush(new Entry("Long", owner)).getId();
+        String compressible = "Buy milk, eggs and bread. ".repeat(40);
+        String incompressible = new Random(42).ints(600, 0x4E00, 0x9FFF)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+
+        assertThat(entryRepository.updateBodies(owner.getId(), Map.of(shortId, incompressible, longId, compressible),
+                Map.of(shortId, 5L, longId, 6L), Instant.now())).isEqualTo(2);
+        testEntityManager.clear();
+
+        assertThat(entryRepository.findById(shortId)).get().satisfies(entry -> {
+            assertThat(entry.getEntryBody()).isEqualTo(incompressible);
+            assertThat(entry.getChangeSeq()).isEqualTo(5L);
+        });
+        assertThat(entryRepository.findById(longId)).get().satisfies(entry -> {
+            assertThat(entry.getEntryBody()).isEqualTo(compressible);
+            assertThat(entry.getPreview()).isEqualTo(Entry.previewOf(compressible));
+        });
+    }
+
+    // the index starts with user_id and then the sort key, and the query seeks on user_id through it
+    private void assertServedBy(String name, EntryFilter filter, String index, String sortColumn) {
+        List<Object> columns = testEntityManager.getEntityManager()
+                .createNativeQuery("SELECT LOWER(COLUMN_NAME) FROM INFORMATION_SCHEMA.INDEX_COLUMNS"
+                        + " WHERE TABLE_NAME = 'ENTRIES' AND INDEX_NAME = UPPER(:index) ORDER BY ORDINAL_POSITION")
+                .setParameter("index", index)
+                .getResultList();
+        assertThat(columns).as(name + ": columns of " + index).startsWith((Object) "user_id", sortColumn);
+        String plan = explain(owner.getId(), filter, index);
+        assertThat(plan).as(name + ": " + plan).containsIgnoringCase("PUBLIC." + index + ": USER_ID = ");
+    }
+
+    private void assertUsesIndex(String name, EntryFilter filter, List<String> indexes) {
+        String plan = explain(owner.getId(), filter, null);
+        assertThat(plan).as(name + ": " + plan).doesNotContainIgnoringCase("tableScan");
+        assertThat(indexes).as(name + " uses one of " + indexes + ": " + plan)
+                .anyMatch(index -> plan.toLowerCase().contains(index));
+    }
+
+    private String explain(Long userId, EntryFilter filter, String hint) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        entryRepository.findFiltered(userId, filter, 10);
+        String sql = CapturingStatementInspector.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().contains("from entries"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        if (hint != null) {
+            sql = sql.replaceFirst("(?i)(from entries \\w+)", "$1 USE INDEX (" + hint + ")");
+        }
+        Object plan = testEntityManager.getEntityManager()
+                .createNativeQuery("EXPLAIN " + sql.replace("?", "10"))
+                .getSingleResult();
+        return plan.toString();
+    }
+
 }
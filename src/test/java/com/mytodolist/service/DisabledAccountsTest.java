@@ -0,0 +1,38 @@
+package com.mytodolist.service;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.data.domain.Limit;
+
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.repositories.AccountDeletionRepository;
+import com.mytodolist.security.services.DisabledAccounts;
+
+@ExtendWith(MockitoExtension.class)
+public class DisabledAccountsTest {
+
+    @Mock
+    private AccountDeletionRepository accountDeletionRepository;
+
+    @Test
+    public void testPendingDeletionsAreDisabledFromTheStart() {
+        when(accountDeletionRepository.findPendingUserIds(Limit.unlimited())).thenReturn(List.of(3L, 8L));
+
+        DisabledAccounts disabledAccounts = new DisabledAccounts(
+                new TransactionAwareCacheManagerProxy(new ConcurrentMapCacheManager(CacheConfig.DISABLED_ACCOUNTS)),
+                accountDeletionRepository);
+
+        assertThat(disabledAccounts.isDisabled(3L)).isTrue();
+        assertThat(disabledAccounts.isDisabled(8L)).isTrue();
+        assertThat(disabledAccounts.isDisabled(1L)).isFalse();
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.mytodolist.service;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.mytodolist.config.CacheConfig;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.exceptions.IdempotencyKeyReusedException;
+import com.mytodolist.services.EntryIdempotency;
+
+public class EntryIdempotencyTest {
+
+    private final EntryIdempotency idempotency = new EntryIdempotency(new ConcurrentMapCacheManager(CacheConfig.IDEMPOTENT_CREATES));
+    private final AtomicInteger inserts = new AtomicInteger();
+
+    @Test
+    public void testReplay_ReturnsFirstResponseWithoutSecondInsert() {
+        EntryResponseDTO first = idempotency.create(1L, "key-1", "buy milk", this::insert);
+        EntryResponseDTO replay = idempotency.create(1L, "key-1", "buy milk", this::insert);
+
+        assertThat(replay).isSameAs(first);
+        assertThat(inserts).hasValue(1);
+    }
+
+    @Test
+    public void testKeys_AreScopedPerUser() {
+        idempotency.create(1L, "key-1", "buy milk", this::insert);
+        idempotency.create(2L, "key-1", "buy milk", this::insert);
+
+        assertThat(inserts).hasValue(2);
+    }
+
+    @Test
+    public void testNoKey_AlwaysInserts() {
+        idempotency.create(1L, null, "buy milk", this::insert);
+        idempotency.create(1L, null, "buy milk", this::insert);
+
+        assertThat(inserts).hasValue(2);
+    }
+
+    @Test
+    public void testReusedKeyWithDifferentBody_IsRejected() {
+        idempotency.create(1L, "key-1", "buy milk", this::insert);
+
+        assertThatThrownBy(() -> idempotency.create(1L, "key-1", "buy bread", this::insert))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessage("Idempotency-Key was already used for a different entry");
+    }
+
+    @Test
+    public void testFailedCreate_ReleasesTheKey() {
+        assertThatThrownBy(() -> idempotency.create(1L, "key-1", "buy milk", () -> {
+            throw new EntryQuotaExceededException(1);
+        })).isInstanceOf(EntryQuotaExceededException.class);
+
+        idempotency.create(1L, "key-1", "buy milk", this::insert);
+        assertThat(inserts).hasValue(1);
+    }
+
+    @Test
+    public void testConcurrentDuplicates_AreCoalesced() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<EntryResponseDTO> first = CompletableFuture.supplyAsync(() ->
+                idempotency.create(1L, "key-1", "buy milk", () -> {
+                    firstStarted.countDown();
+                    await(release);
+                    return insert();
+                }));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<EntryResponseDTO> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotency.create(1L, "key-1", "buy milk", this::insert));
+        Thread.sleep(50);
+        assertThat(duplicate).isNotDone(); // waiting on the first request, not inserting
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(inserts).hasValue(1);
+    }
+
+    private EntryResponseDTO insert() {
+        long id = inserts.incrementAndGet();
+        return new EntryResponseDTO(id, "buy milk", "testuser", Instant.now(), 0L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.mytodolist.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryImportResultDTO;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.User;
+import com.mytodolist.services.EntryImport;
+import com.mytodolist.services.EntryService;
+
+import jakarta.validation.Validation;
+
+public class EntryImportTest {
+
+    private final EntryService entryService = mock(EntryService.class);
+    private final EntryConfig entryConfig = new EntryConfig();
+    private final User user = new User("testuser", "password");
+    private EntryImport entryImport;
+
+    @BeforeEach
+    public void setUp() {
+        user.setId(1L);
+        entryConfig.setMaxBatchCreate(2);
+        entryImport = new EntryImport(entryService, entryConfig, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        entryImport.stop();
+    }
+
+    @Test
+    public void testNdjson_SkipsBadRowsAndCommitsInChunks() throws Exception {
+        String upload = "{\"entryBody\": \"a\"}\n"
+                + "\n"
+                + "{\"entryBody\": \n"
+                + "{\"id\": 7, \"entryBody\": \"b\"}\r\n"
+                + "{\"entryBody\": \"" + "x".repeat(5001) + "\"}\n"
+                + "{\"entryBody\": \"d\"}";
+
+        EntryImportResultDTO result = entryImport.importEntries(user, stream(upload), "ndjson");
+
+        verify(entryService).createEntries(List.of("a"), user);
+        verify(entryService).createEntries(List.of("b"), user);
+        verify(entryService).createEntries(List.of("d"), user);
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(EntryImportResultDTO.RowError::getLine).containsExactly(3L, 5L);
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Entry cannot exceed 5000 characters");
+    }
+
+    @Test
+    public void testCsv_ReadsWhatExportWrites() throws Exception {
+        String upload = "id,createdAt,entryBody\r\n"
+                + "1,2024-01-01T00:00:00Z,\"say \"\"hi\"\", then leave\"\r\n"
+                + "2,2024-01-01T00:00:00Z,\"two\nlines\"\r\n"
+                + "3,2024-01-01T00:00:00Z,plain\r\n";
+
+        EntryImportResultDTO result = entryImport.importEntries(user, stream(upload), "csv");
+
+        verify(entryService).createEntries(List.of("say \"hi\", then leave", "two\nlines"), user);
+        verify(entryService).createEntries(List.of("plain"), user);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+    }
+
+    @Test
+    public void testCsv_WithoutEntryBodyColumn() {
+        assertThatThrownBy(() -> entryImport.importEntries(user, stream("id,title\n1,x\n"), "csv"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(entryService, never()).createEntries(anyList(), eq(user));
+    }
+
+    @Test
+    public void testQuotaExceeded_StopsReading() throws Exception {
+        when(entryService.createEntries(anyList(), eq(user)))
+                .thenReturn(List.of(new Entry("a", user), new Entry("b", user)))
+                .thenThrow(new EntryQuotaExceededException(2));
+        StringBuilder upload = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            upload.append("{\"entryBody\": \"entry ").append(i).append("\"}\n");
+        }
+
+        EntryImportResultDTO result = entryImport.importEntries(user, stream(upload.toString()), "ndjson");
+
+        verify(entryService, times(2)).createEntries(anyList(), eq(user));
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Entry limit of 2 reached");
+    }
+
+    @Test
+    public void testUnknownFormat() {
+        assertThatThrownBy(() -> entryImport.importEntries(user, stream(""), "xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static InputStream stream(String upload) {
+        return new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
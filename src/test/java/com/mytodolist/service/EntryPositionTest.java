@@ -0,0 +1,57 @@
+package com.mytodolist.service;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import com.mytodolist.services.EntryPosition;
+
+public class EntryPositionTest {
+
+    @Test
+    public void testBetween_EmptyListAndEnds() {
+        assertThat(EntryPosition.between(null, null)).isEqualTo("ai");
+        assertThat(EntryPosition.between("ai", null)).isEqualTo("aj");
+        assertThat(EntryPosition.between(null, "ai")).isEqualTo("ah");
+        assertThat(EntryPosition.between("az", null)).isEqualTo("b00");
+    }
+
+    @Test
+    public void testBetween_RepeatedInsertsStayOrdered() {
+        String low = "a1";
+        String high = "a2";
+        for (int i = 0; i < 200; i++) {
+            String middle = EntryPosition.between(low, high);
+            assertThat(middle).isGreaterThan(low).isLessThan(high);
+            if (i % 2 == 0) {
+                high = middle;
+            } else {
+                low = middle;
+            }
+        }
+        String first = "ai";
+        for (int i = 0; i < 100; i++) {
+            String before = EntryPosition.between(null, first);
+            assertThat(before).isLessThan(first);
+            first = before;
+        }
+    }
+
+    @Test
+    public void testBetween_RejectsBadKeys() {
+        assertThatThrownBy(() -> EntryPosition.between("a5", "a4")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EntryPosition.between("a10", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EntryPosition.between("A1", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSpread_EvenOrderedShortKeys() {
+        List<String> keys = EntryPosition.spread(1000);
+        assertThat(keys).hasSize(1000).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).allMatch(key -> key.length() == 4);
+        assertThat(EntryPosition.between(keys.get(0), keys.get(1))).hasSize(4);
+    }
+
+}
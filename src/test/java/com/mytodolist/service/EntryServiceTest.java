@@ -3,24 +3,61 @@ package com.mytodolist.service;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import org.mockito.Spy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.Limit;
+
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryBatchDTO;
+import com.mytodolist.dtos.EntryBulkResultDTO;
+import com.mytodolist.dtos.EntryChangeDTO;
+import com.mytodolist.dtos.EntryChangesDTO;
+import com.mytodolist.dtos.EntryEditDTO;
+import com.mytodolist.dtos.EntryPageDTO;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySummaryDTO;
+import com.mytodolist.dtos.EntryUpdateDTO;
+import com.mytodolist.exceptions.EntryMoveConflictException;
+import com.mytodolist.exceptions.EntryNotFoundException;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.exceptions.EntryVersionMismatchException;
+import com.mytodolist.exceptions.UnauthorizedAccessException;
 import com.mytodolist.models.Entry;
+import com.mytodolist.models.EntryStats;
+import com.mytodolist.models.EntryTombstone;
 import com.mytodolist.models.User;
+import com.mytodolist.repositories.EntryFilter;
 import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntrySort;
+import com.mytodolist.repositories.EntryTombstoneRepository;
 import com.mytodolist.repositories.UserRepository;
+import com.mytodolist.services.EntryCursor;
 import com.mytodolist.services.EntryService;
+import com.mytodolist.services.EntryService.FirstPage;
+import com.mytodolist.services.EntryPosition;
+import com.mytodolist.services.EntryPositionCursor;
+import com.mytodolist.services.EntryStatsService;
+import com.mytodolist.services.EntryTextPatch;
+import com.mytodolist.services.SearchIndexService;
 
 @ExtendWith(MockitoExtension.class)
 public class EntryServiceTest {
@@ -29,85 +66,600 @@ public class EntryServiceTest {
     private EntryRepository entryRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private SearchIndexService searchIndexService;
+    @Mock
+    private EntryStatsService entryStatsService;
+    @Mock
+    private EntryTombstoneRepository entryTombstoneRepository;
+    @Spy
+    private EntryConfig entryConfig = new EntryConfig();
     @InjectMocks
     private EntryService entryService;
 
+    private final EntryStats stats = new EntryStats(1L, 0, 0);
+
     @Test
     public void testCreateEntry() {
 
         Entry entryToBeCreated = new Entry("Test entry body", new User("testuser", "password"));
         entryToBeCreated.setId(1L);
         entryToBeCreated.setCreatedAt(Instant.now());
+        when(entryStatsService.lockForWrite(any())).thenReturn(stats);
         when(entryRepository.save(any(Entry.class))).thenReturn(entryToBeCreated);
         assertThat(entryService.createEntry(entryToBeCreated, new User("testuser", "password"))).isEqualTo(entryToBeCreated);
         verify(entryRepository).save(any(Entry.class));
+        verify(searchIndexService).index(entryToBeCreated);
 
     }
 
     @Test
-    public void testGetEntriesByUser() {
+    public void testGetEntryPage_ReturnsCursorWhenMoreRowsExist() {
         User user = new User("testuser", "password");
-        Entry entry1 = new Entry("Test entry 1", user);
-        Entry entry2 = new Entry("Test entry 2", user);
-        when(entryRepository.findByUser(user)).thenReturn(List.of(entry1, entry2));
-        List<Entry> entries = entryService.getEntriesByUser(user);
-        assertThat(entries).hasSize(2);
-        assertThat(entries.get(0).getEntryBody()).isEqualTo("Test entry 1");
-        assertThat(entries.get(1).getEntryBody()).isEqualTo("Test entry 2");
+        user.setId(1L);
+        entryConfig.setPageSize(2);
+        Instant now = Instant.now();
+        List<EntrySummaryDTO> rows = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            rows.add(new EntrySummaryDTO(i, "Entry " + i, now.plusSeconds(i)));
+        }
+        when(entryRepository.findFirstPageByUserId(eq(1L), any(Limit.class))).thenReturn(rows);
 
-        verify(entryRepository).findByUser(user);
+        EntryPageDTO page = entryService.getEntryPage(user, null, null);
 
+        assertThat(page.getEntries()).hasSize(2);
+        EntryCursor next = EntryCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(2L);
+        assertThat(next.getCreatedAt()).isEqualTo(now.plusSeconds(2));
     }
 
     @Test
-    public void testGetEntriesByNonExistentUser() {
-        User nonExistentUser = new User("username", "password");
-        nonExistentUser.setId(999L);
-        when(entryRepository.findByUser(nonExistentUser)).thenReturn(new ArrayList<>());
+    public void testGetFirstPage_ReadsTheListVersionBeforeTheRows() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        when(entryStatsService.getListVersion(1L)).thenReturn(9L);
+        when(entryRepository.findFirstPageByUserId(eq(1L), any(Limit.class))).thenReturn(List.of());
 
-        assertThat(entryService.getEntriesByUser(nonExistentUser)).isEmpty();
-        verify(entryRepository).findByUser(nonExistentUser);
+        FirstPage first = entryService.getFirstPage(user);
 
+        assertThat(first.getListVersion()).isEqualTo(9L);
+        assertThat(first.getPage().getEntries()).isEmpty();
+        InOrder order = inOrder(entryStatsService, entryRepository);
+        order.verify(entryStatsService).getListVersion(1L);
+        order.verify(entryRepository).findFirstPageByUserId(eq(1L), any(Limit.class));
     }
 
     @Test
-    public void testGetEntryById() {
-        Entry entry = new Entry("Test entry body");
-        entry.setId(1L);
-        entry.setCreatedAt(Instant.now());
-        when(entryRepository.findById(1L)).thenReturn(Optional.of(entry));
-        assertThat(entryService.getEntryById(1L)).isPresent().get().isEqualTo(entry);
-        verify(entryRepository).findById(1L);
+    public void testGetEntryPage_FollowsCursorAndClampsLimit() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        entryConfig.setMaxPageSize(5);
+        Instant createdAt = Instant.parse("2025-01-01T00:00:00Z");
+        String cursor = new EntryCursor(createdAt, 7L).encode();
+        when(entryRepository.findPageByUserIdAfter(eq(1L), eq(createdAt), eq(7L), any(Limit.class))).thenReturn(List.of());
+
+        EntryPageDTO page = entryService.getEntryPage(user, cursor, 1000);
+
+        assertThat(page.getEntries()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
     }
 
     @Test
-    public void testUpdateEntryById() {
+    public void testGetPositionPage_CursorWalksFromUnkeyedToKeyedRows() {
+        entryConfig.setPageSize(2);
+        Instant now = Instant.now();
+        when(entryRepository.findFirstPositionPageByUserId(eq(1L), any(Limit.class))).thenReturn(List.of(
+                new EntrySummaryDTO(4L, "Legacy", now, null), new EntrySummaryDTO(9L, "Legacy too", now, null),
+                new EntrySummaryDTO(2L, "Keyed", now, "ai")));
+
+        EntryPageDTO first = entryService.getPositionPage(1L, null, null);
+
+        assertThat(first.getEntries()).extracting(EntrySummaryDTO::getId).containsExactly(4L, 9L);
+        when(entryRepository.findPositionPageByUserIdAfterUnkeyed(eq(1L), eq(9L), any(Limit.class))).thenReturn(List.of(
+                new EntrySummaryDTO(2L, "Keyed", now, "ai"), new EntrySummaryDTO(5L, "Keyed too", now, "aj"),
+                new EntrySummaryDTO(3L, "Last", now, "ak")));
+
+        EntryPageDTO second = entryService.getPositionPage(1L, first.getNextCursor(), null);
+
+        assertThat(second.getEntries()).extracting(EntrySummaryDTO::getId).containsExactly(2L, 5L);
+        EntryPositionCursor next = EntryPositionCursor.decode(second.getNextCursor());
+        assertThat(next.getPosition()).isEqualTo("aj");
+        assertThat(next.getId()).isEqualTo(5L);
+        when(entryRepository.findPositionPageByUserIdAfter(eq(1L), eq("aj"), eq(5L), any(Limit.class))).thenReturn(List.of(
+                new EntrySummaryDTO(3L, "Last", now, "ak")));
+
+        assertThat(entryService.getPositionPage(1L, second.getNextCursor(), null).getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetEntryPage_RejectsGarbageCursor() {
         User user = new User("testuser", "password");
-        Entry oldEntry = new Entry("Old entry body", user);
-        oldEntry.setId(1L);
-        oldEntry.setCreatedAt(Instant.now());
+        assertThatThrownBy(() -> entryService.getEntryPage(user, "%%%", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testGetOwnedEntry_OtherUsersEntry() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(5L))).thenReturn(List.of());
+        when(entryRepository.existsById(5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> entryService.getOwnedEntry(1L, 5L))
+                .isInstanceOf(UnauthorizedAccessException.class)
+                .hasMessage("You do not have permission to view this entry.");
+        verify(entryRepository, never()).findById(any());
+    }
 
-        Entry newEntry = new Entry("Updated entry body", user);
-        newEntry.setId(1L);
-        newEntry.setCreatedAt(Instant.now());
+    @Test
+    public void testUpdateEntryById() {
+        Instant createdAt = Instant.now();
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "Old entry body", "testuser", createdAt, 2L)));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordUpdate(stats, 4L)).thenReturn(9L);
+        when(entryRepository.updateBody(eq(1L), eq(1L), eq("Updated entry body"), eq(9L), any(Instant.class), eq(2L)))
+                .thenReturn(1);
 
-        when(entryRepository.findById(1L)).thenReturn(Optional.of(oldEntry));
-        when(entryRepository.save(any(Entry.class))).thenReturn(newEntry);
+        EntryResponseDTO updatedEntry = entryService.updateEntryById(1L, 1L, "Updated entry body", 2L);
 
-        Entry updatedEntry = entryService.updateEntryById(1L, "Updated entry body");
         assertThat(updatedEntry.getEntryBody()).isEqualTo("Updated entry body");
         assertThat(updatedEntry.getId()).isEqualTo(1L);
+        assertThat(updatedEntry.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(updatedEntry.getVersion()).isEqualTo(3L);
+        verify(entryStatsService).lockForWrite(1L);
+        verify(searchIndexService).reindexAll(1L, Map.of(1L, "Updated entry body"));
+        verify(entryRepository, never()).findById(any());
+        verify(entryRepository, never()).save(any(Entry.class));
 
-        verify(entryRepository).save(any(Entry.class));
+    }
+
+    @Test
+    public void testUpdateEntryById_OtherUsersEntry() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(5L))).thenReturn(List.of());
+        when(entryRepository.existsById(5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> entryService.updateEntryById(1L, 5L, "mine now", null))
+                .isInstanceOf(UnauthorizedAccessException.class)
+                .hasMessage("You do not have permission to update this entry.");
+        verify(entryRepository, never()).updateBody(any(), any(), any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    public void testUpdateEntryById_StaleVersion() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "edited elsewhere", "testuser", Instant.now(), 5L)));
+
+        assertThatThrownBy(() -> entryService.updateEntryById(1L, 1L, "my edit", 4L))
+                .isInstanceOf(EntryVersionMismatchException.class)
+                .hasMessage("Entry 1 has changed since version 4");
+        verify(entryStatsService, never()).recordUpdate(any(), any(Long.class));
+        verify(entryRepository, never()).updateBody(any(), any(), any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    public void testUpdateEntryById_RowChangedBeforeTheWrite() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "read", "testuser", Instant.now(), 4L)));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryRepository.updateBody(eq(1L), eq(1L), eq("mine"), anyLong(), any(Instant.class), eq(4L))).thenReturn(0);
+
+        assertThatThrownBy(() -> entryService.updateEntryById(1L, 1L, "mine", null))
+                .isInstanceOf(EntryVersionMismatchException.class)
+                .hasMessage("Entry 1 has changed since version 4");
+        verify(searchIndexService, never()).reindexAll(any(), any());
+    }
+
+    @Test
+    public void testPatchEntryById_AppliesEditsToTheBaseVersion() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "buy milk today", "testuser", Instant.now(), 4L)));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordUpdate(stats, 2L)).thenReturn(8L); // two bytes longer
+        when(entryRepository.updateBody(eq(1L), eq(1L), eq("buy bread today!"), eq(8L), any(Instant.class), eq(4L)))
+                .thenReturn(1);
+
+        EntryResponseDTO patched = entryService.patchEntryById(1L, 1L, 4L, List.of(
+                new EntryEditDTO(4, 4, "bread"), new EntryEditDTO(15, 0, "!")));
+
+        assertThat(patched.getEntryBody()).isEqualTo("buy bread today!");
+        assertThat(patched.getVersion()).isEqualTo(5L);
+    }
 
+    @Test
+    public void testPatchEntryById_StaleBaseVersion() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "buy milk", "testuser", Instant.now(), 5L)));
+
+        assertThatThrownBy(() -> entryService.patchEntryById(1L, 1L, 4L, List.of(new EntryEditDTO(0, 0, "x"))))
+                .isInstanceOf(EntryVersionMismatchException.class);
+        verify(entryRepository, never()).updateBody(any(), any(), any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    public void testPatchEntryById_EditOutsideBody() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "short", "testuser", Instant.now(), 1L)));
+
+        assertThatThrownBy(() -> entryService.patchEntryById(1L, 1L, 1L, List.of(new EntryEditDTO(3, 10, null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Edit at 3 is outside the entry body");
+    }
+
+    @Test
+    public void testEntryTextPatch_RejectsSplitCharactersAndOversizedResults() {
+        assertThatThrownBy(() -> EntryTextPatch.apply("a\uD83D\uDE00b", List.of(new EntryEditDTO(2, 0, "x"))))
+                .hasMessage("Edit at 2 splits a character");
+        assertThatThrownBy(() -> EntryTextPatch.apply("", List.of(new EntryEditDTO(0, 0, "x".repeat(5001)))))
+                .hasMessage("Entry cannot exceed 5000 characters");
+        assertThat(EntryTextPatch.apply("abc", List.of(new EntryEditDTO(0, 3, null)))).isEmpty();
+    }
+
+    @Test
+    public void testUpdateEntryById_NotFound() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(5L))).thenReturn(List.of());
+        when(entryRepository.existsById(5L)).thenReturn(false);
+
+        assertThatThrownBy(() -> entryService.updateEntryById(1L, 5L, "anything", null))
+                .isInstanceOf(EntryNotFoundException.class);
+        verify(entryStatsService, never()).recordUpdate(any(), any(Long.class));
     }
 
     @Test
     public void testDeleteEntryById() {
-        doNothing().when(entryRepository).deleteById(1L); // Mocking deleteById method
-        entryService.deleteEntryById(1L);
-        verify(entryRepository).deleteById(1L);
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(1L))).thenReturn(List.of(
+                new EntryResponseDTO(1L, "12345", "testuser", Instant.now(), 3L)));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordDelete(stats, 5L)).thenReturn(7L);
+        when(entryRepository.softDelete(eq(1L), eq(1L), eq(3L), any(Instant.class))).thenReturn(1);
+        ArgumentCaptor<EntryTombstone> tombstone = ArgumentCaptor.forClass(EntryTombstone.class);
+
+        entryService.deleteEntryById(1L, 1L, null);
+
+        verify(entryStatsService).recordDelete(stats, 5L);
+        verify(entryTombstoneRepository).save(tombstone.capture());
+        assertThat(tombstone.getValue().getEntryId()).isEqualTo(1L);
+        assertThat(tombstone.getValue().getChangeSeq()).isEqualTo(7L);
+        verify(searchIndexService).remove(1L);
+        verify(entryRepository, never()).findById(any());
+
+    }
+
+    @Test
+    public void testDeleteEntryById_OtherUsersEntry() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(1L, List.of(5L))).thenReturn(List.of());
+        when(entryRepository.existsById(5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> entryService.deleteEntryById(1L, 5L, null))
+                .isInstanceOf(UnauthorizedAccessException.class)
+                .hasMessage("You do not have permission to delete this entry.");
+        verify(entryRepository, never()).softDelete(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    public void testRestoreEntryById() {
+        Instant createdAt = Instant.now();
+        when(entryRepository.findDeleted(1L, 4L)).thenReturn(Optional.of(
+                new EntryResponseDTO(4L, "12345", "testuser", createdAt, 2L)));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordCreate(stats, 5L)).thenReturn(11L);
+
+        EntryResponseDTO restored = entryService.restoreEntryById(1L, 4L);
+
+        assertThat(restored.getEntryBody()).isEqualTo("12345");
+        assertThat(restored.getVersion()).isEqualTo(3L);
+        verify(entryRepository).restore(eq(1L), eq(4L), eq(11L), any(Instant.class));
+        verify(entryTombstoneRepository).deleteByEntryIdAndUserId(4L, 1L);
+        verify(searchIndexService).reindexAll(1L, Map.of(4L, "12345"));
+    }
+
+    @Test
+    public void testRestoreEntryById_NotDeleted() {
+        when(entryRepository.findDeleted(1L, 4L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> entryService.restoreEntryById(1L, 4L))
+                .isInstanceOf(EntryNotFoundException.class);
+        verify(entryStatsService, never()).recordCreate(any(EntryStats.class), any(Long.class));
+    }
+
+    @Test
+    public void testPurgeDeleted_RemovesOneBatch() {
+        Instant cutoff = Instant.now();
+        when(entryRepository.findPurgeable(cutoff, 2)).thenReturn(List.of(3L, 5L));
+        when(entryRepository.purge(List.of(3L, 5L))).thenReturn(2);
+
+        assertThat(entryService.purgeDeleted(cutoff, 2)).isEqualTo(2);
+    }
+
+    @Test
+    public void testCreateEntry_RecordsStatsBeforeSaving() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        Entry entry = new Entry("héllo", user);
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordCreate(stats, 6L)).thenThrow(new EntryQuotaExceededException(1));
+
+        assertThatThrownBy(() -> entryService.createEntry(entry, user))
+                .isInstanceOf(EntryQuotaExceededException.class);
+        verify(entryRepository, never()).save(any(Entry.class));
+    }
+
+    @Test
+    public void testGetChangesSince_MergesUpsertsAndDeletesBySequence() {
+        when(entryStatsService.getListVersion(1L)).thenReturn(9L);
+        when(entryRepository.findChanges(eq(1L), eq(4L), eq(9L), any(Limit.class))).thenReturn(List.of(
+                new EntryChangeDTO(10L, "a", Instant.now(), Instant.now(), 5L),
+                new EntryChangeDTO(11L, "b", Instant.now(), Instant.now(), 8L)));
+        when(entryTombstoneRepository.findChanges(eq(1L), eq(4L), eq(9L), any(Limit.class))).thenReturn(List.of(
+                new EntryTombstone(3L, 1L, 6L, Instant.now()),
+                new EntryTombstone(4L, 1L, 9L, Instant.now())));
+
+        EntryChangesDTO changes = entryService.getChangesSince(1L, 4L, 3);
+
+        assertThat(changes.getUpserts()).extracting(EntryChangeDTO::getId).containsExactly(10L, 11L);
+        assertThat(changes.getDeletes()).containsExactly(3L);
+        assertThat(changes.isHasMore()).isTrue();
+        assertThat(changes.getVersion()).isEqualTo(8L);
+    }
 
+    @Test
+    public void testGetChangesSince_UpToDateSkipsQueries() {
+        when(entryStatsService.getListVersion(1L)).thenReturn(9L);
+
+        EntryChangesDTO changes = entryService.getChangesSince(1L, 9L, null);
+
+        assertThat(changes.getUpserts()).isEmpty();
+        assertThat(changes.getDeletes()).isEmpty();
+        assertThat(changes.getVersion()).isEqualTo(9L);
+        assertThat(changes.isHasMore()).isFalse();
+        verify(entryRepository, never()).findChanges(any(), any(Long.class), any(Long.class), any(Limit.class));
+    }
+
+    @Test
+    public void testBackfillPreviews_UsesFirstLine() {
+        when(entryRepository.findWithoutPreview(any(Limit.class))).thenReturn(List.of(
+                new EntryResponseDTO(4L, "\n  Shopping list  \nmilk\neggs", "testuser", Instant.now())));
+
+        assertThat(entryService.backfillPreviews(500)).isEqualTo(1);
+
+        verify(entryRepository).setPreview(4L, "Shopping list");
+    }
+
+    @Test
+    public void testPreviewOf_CapsLength() {
+        String longLine = "x".repeat(Entry.PREVIEW_LENGTH + 50);
+
+        assertThat(Entry.previewOf(longLine)).hasSize(Entry.PREVIEW_LENGTH);
+        assertThat(new Entry("short\nrest", new User("testuser", "password")).getPreview()).isEqualTo("short");
+    }
+
+    @Test
+    public void testCompactBodies_MovesLegacyBodies() {
+        when(entryRepository.findUncompacted(any(Limit.class))).thenReturn(List.of(
+                new EntryResponseDTO(4L, null, "old uncompressed body", "testuser", Instant.now())));
+
+        assertThat(entryService.compactBodies(200)).isEqualTo(1);
+
+        verify(entryRepository).compactBody(4L, "old uncompressed body");
+    }
+
+    @Test
+    public void testGetEntriesByIds_KeepsRequestOrderAndReportsMissing() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(eq(1L), any())).thenReturn(List.of(
+                new EntryResponseDTO(5L, "five", "testuser", Instant.now()),
+                new EntryResponseDTO(2L, "two", "testuser", Instant.now())));
+
+        EntryBatchDTO batch = entryService.getEntriesByIds(1L, List.of(2L, 9L, 5L, 2L));
+
+        assertThat(batch.getEntries()).extracting(EntryResponseDTO::getId).containsExactly(2L, 5L);
+        assertThat(batch.getMissing()).containsExactly(9L);
+    }
+
+    @Test
+    public void testGetEntriesByIds_EnforcesCap() {
+        entryConfig.setMaxBatchIds(2);
+
+        assertThatThrownBy(() -> entryService.getEntriesByIds(1L, List.of(1L, 2L, 3L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 2 ids can be handled at once");
+        verify(entryRepository, never()).findResponsesByUserIdAndIdIn(any(), any());
+    }
+
+    @Test
+    public void testQueryEntries_BuildsFilter() {
+        ArgumentCaptor<EntryFilter> filter = ArgumentCaptor.forClass(EntryFilter.class);
+        when(entryRepository.findFiltered(eq(1L), filter.capture(), eq(50))).thenReturn(List.of());
+
+        entryService.queryEntries(1L, "2025-01-01T00:00:00Z", null, "Meet", "-createdAt", null);
+
+        assertThat(filter.getValue().getCreatedFrom()).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+        assertThat(filter.getValue().getPreviewPrefix()).isEqualTo("Meet");
+        assertThat(filter.getValue().getSort()).isEqualTo(EntrySort.CREATED_DESC);
+    }
+
+    @Test
+    public void testQueryEntries_RejectsBadInput() {
+        assertThatThrownBy(() -> entryService.queryEntries(1L, "yesterday", null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("from must be an ISO-8601 instant");
+        assertThatThrownBy(() -> entryService.queryEntries(1L, null, null, null, "body", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported sort: body");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateEntries_GivesEachEntryItsOwnChangeSeq() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordCreateBatch(stats, 3, 3L)).thenReturn(12L);
+        when(entryRepository.saveAll(any(List.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Entry> saved = entryService.createEntries(List.of("a", "b", "c"), user);
+
+        assertThat(saved).extracting(Entry::getChangeSeq).containsExactly(10L, 11L, 12L);
+        assertThat(saved).allMatch(entry -> entry.getUser() == user);
+        verify(searchIndexService).indexAll(saved);
+    }
+
+    @Test
+    public void testCreateEntries_EnforcesBatchCap() {
+        entryConfig.setMaxBatchCreate(2);
+
+        assertThatThrownBy(() -> entryService.createEntries(List.of("a", "b", "c"), new User("testuser", "password")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 2 entries can be created at once");
+        verify(entryStatsService, never()).recordCreateBatch(any(), any(Integer.class), any(Long.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeleteEntries_OneStatementAndTombstonesPerRow() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(eq(1L), any())).thenReturn(List.of(
+                new EntryResponseDTO(7L, "seven", "testuser", Instant.now()),
+                new EntryResponseDTO(3L, "three", "testuser", Instant.now())));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordDeleteBatch(stats, 2, 10L)).thenReturn(21L);
+        when(entryRepository.softDeleteByUserIdAndIdIn(eq(1L), eq(List.of(3L, 7L)), any(Instant.class))).thenReturn(2);
+        ArgumentCaptor<List<EntryTombstone>> tombstones = ArgumentCaptor.forClass(List.class);
+
+        EntryBulkResultDTO result = entryService.deleteEntries(1L, List.of(7L, 3L, 99L));
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(result.getMissing()).containsExactly(99L);
+        verify(entryStatsService).lockForWrite(1L);
+        verify(entryTombstoneRepository).saveAll(tombstones.capture());
+        assertThat(tombstones.getValue()).extracting(EntryTombstone::getChangeSeq).containsExactly(20L, 21L);
+        verify(searchIndexService).removeAll(1L, List.of(3L, 7L));
+        verify(entryRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testUpdateEntries_SkipsOtherUsersRows() {
+        when(entryRepository.findResponsesByUserIdAndIdIn(eq(1L), any())).thenReturn(List.of(
+                new EntryResponseDTO(3L, "old", "testuser", Instant.now())));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordUpdateBatch(stats, 1, 5L)).thenReturn(5L); // "old" -> "new body"
+        when(entryRepository.updateBodies(eq(1L), eq(Map.of(3L, "new body")), eq(Map.of(3L, 5L)), any(Instant.class)))
+                .thenReturn(1);
+
+        EntryBulkResultDTO result = entryService.updateEntries(1L, List.of(
+                new EntryUpdateDTO(3L, "new body"), new EntryUpdateDTO(4L, "not mine")));
+
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getMissing()).containsExactly(4L);
+        verify(searchIndexService).reindexAll(1L, Map.of(3L, "new body"));
+    }
+
+    @Test
+    public void testUpdateEntries_RejectsDuplicateIds() {
+        assertThatThrownBy(() -> entryService.updateEntries(1L, List.of(
+                new EntryUpdateDTO(3L, "a"), new EntryUpdateDTO(3L, "b"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Entry 3 appears more than once");
+    }
+
+    @Test
+    public void testMoveEntry_WritesKeyBetweenNeighbours() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L, 9L))).thenReturn(List.of(
+                new Object[]{5L, "a3"}, new Object[]{7L, "a4"}, new Object[]{9L, "a5"}));
+        when(entryRepository.findNextPosition(1L, "a4", 5L)).thenReturn("a5");
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordUpdate(stats, 0)).thenReturn(12L);
+        entryService.moveEntry(1L, 5L, 7L, 9L);
+        verify(entryStatsService).lockForWrite(1L);
+        verify(entryRepository).updatePosition(1L, 5L, "a4i", 12L);
+        verify(entryStatsService, never()).requestPositionRebalance(any());
+    }
+
+    @Test
+    public void testMoveEntry_LongKeyRequestsRebalance() {
+        entryConfig.setPositionRebalanceLength(8);
+        when(entryRepository.findPositions(1L, List.of(5L, 7L))).thenReturn(List.of(
+                new Object[]{5L, "a3"}, new Object[]{7L, "a0000001"}));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        entryService.moveEntry(1L, 5L, null, 7L);
+        verify(entryRepository).updatePosition(eq(1L), eq(5L), eq("a0000000i"), anyLong());
+        verify(entryStatsService).requestPositionRebalance(stats);
+    }
+
+    @Test
+    public void testMoveEntry_KeysLegacyRowsFirst() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L)))
+                .thenReturn(List.of(new Object[]{5L, null}, new Object[]{7L, null}))
+                .thenReturn(List.of(new Object[]{5L, "ai"}, new Object[]{7L, "ar"}));
+        when(entryRepository.findIdsInPositionOrder(1L)).thenReturn(List.of(5L, 7L));
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryStatsService.recordUpdateBatch(stats, 2, 0)).thenReturn(4L);
+        when(entryStatsService.recordUpdate(stats, 0)).thenReturn(5L);
+        entryService.moveEntry(1L, 5L, 7L, null);
+        verify(entryStatsService).lockForWrite(1L); // once: the rebalance reuses the locked row
+        verify(entryRepository).updatePositions(eq(1L), any(), eq(Map.of(5L, 3L, 7L, 4L)));
+        verify(entryStatsService).clearPositionRebalance(stats);
+        verify(entryRepository).updatePosition(1L, 5L, "as", 5L);
+    }
+
+    @Test
+    public void testMoveEntry_AfterOnlyLandsBeforeTheSuccessor() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L))).thenReturn(List.of(
+                new Object[]{5L, "a3"}, new Object[]{7L, "ai"}));
+        when(entryRepository.findNextPosition(1L, "ai", 5L)).thenReturn("aj");
+        entryService.moveEntry(1L, 5L, 7L, null);
+        verify(entryRepository).updatePosition(eq(1L), eq(5L), eq(EntryPosition.between("ai", "aj")), anyLong());
+    }
+
+    @Test
+    public void testMoveEntry_BeforeOnlyLandsAfterThePredecessor() {
+        when(entryRepository.findPositions(1L, List.of(5L, 9L))).thenReturn(List.of(
+                new Object[]{5L, "a7"}, new Object[]{9L, "a5"}));
+        when(entryRepository.findPreviousPosition(1L, "a5", 5L)).thenReturn("a4");
+        entryService.moveEntry(1L, 5L, null, 9L);
+        verify(entryRepository).updatePosition(eq(1L), eq(5L), eq("a4i"), anyLong());
+    }
+
+    @Test
+    public void testMoveEntry_NeighboursNoLongerAdjacentIsAConflict() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L, 9L))).thenReturn(List.of(
+                new Object[]{5L, "a3"}, new Object[]{7L, "a4"}, new Object[]{9L, "a6"}));
+        when(entryRepository.findNextPosition(1L, "a4", 5L)).thenReturn("a5"); // inserted by another device
+        assertThatThrownBy(() -> entryService.moveEntry(1L, 5L, 7L, 9L))
+                .isInstanceOf(EntryMoveConflictException.class);
+        verify(entryRepository, never()).updatePosition(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    public void testMoveEntry_RejectsNeighboursOutOfOrder() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L, 9L))).thenReturn(List.of(
+                new Object[]{5L, "a3"}, new Object[]{7L, "a5"}, new Object[]{9L, "a4"}));
+        assertThatThrownBy(() -> entryService.moveEntry(1L, 5L, 7L, 9L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Entry 7 does not come before entry 9");
+        verify(entryRepository, never()).updatePosition(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    public void testMoveEntry_OtherUsersEntryIsForbidden() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L))).thenReturn(List.<Object[]>of(new Object[]{7L, "a4"}));
+        when(entryRepository.existsById(5L)).thenReturn(true);
+        assertThatThrownBy(() -> entryService.moveEntry(1L, 5L, 7L, null))
+                .isInstanceOf(UnauthorizedAccessException.class);
+    }
+
+    @Test
+    public void testMoveEntry_MissingNeighbourIsNotFound() {
+        when(entryRepository.findPositions(1L, List.of(5L, 7L))).thenReturn(List.<Object[]>of(new Object[]{5L, "a4"}));
+        assertThatThrownBy(() -> entryService.moveEntry(1L, 5L, 7L, null))
+                .isInstanceOf(EntryNotFoundException.class);
+    }
+
+    @Test
+    public void testCreateEntries_AppendAfterLastPosition() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        when(entryStatsService.lockForWrite(1L)).thenReturn(stats);
+        when(entryRepository.findLastPosition(1L)).thenReturn("ai");
+        when(entryRepository.saveAll(any(List.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<Entry> created = entryService.createEntries(List.of("a", "b"), user);
+        assertThat(created).extracting(Entry::getPosition).containsExactly("aj", "ak");
     }
 
 }
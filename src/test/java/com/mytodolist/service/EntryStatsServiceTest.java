@@ -0,0 +1,118 @@
+package com.mytodolist.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.exceptions.UserNotFoundException;
+import com.mytodolist.models.EntryStats;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.EntryStatsRepository;
+import com.mytodolist.services.EntryStatsService;
+
+@ExtendWith(MockitoExtension.class)
+public class EntryStatsServiceTest {
+
+    @Mock
+    private EntryStatsRepository entryStatsRepository;
+    @Mock
+    private EntryRepository entryRepository;
+    @Spy
+    private EntryConfig entryConfig = new EntryConfig();
+    @InjectMocks
+    private EntryStatsService entryStatsService;
+
+    @Test
+    public void testRecordCreateIncrementsCounters() {
+        EntryStats stats = new EntryStats(1L, 2, 10);
+
+        long version = entryStatsService.recordCreate(stats, 5);
+
+        assertThat(version).isEqualTo(2);
+        assertThat(stats.getEntryCount()).isEqualTo(3);
+        assertThat(stats.getStoredBytes()).isEqualTo(15);
+        assertThat(stats.getListVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRecordCreateEnforcesQuota() {
+        entryConfig.setMaxEntriesPerUser(2);
+        assertThatThrownBy(() -> entryStatsService.recordCreate(new EntryStats(1L, 2, 10), 5))
+                .isInstanceOf(EntryQuotaExceededException.class)
+                .hasMessage("Entry limit of 2 reached");
+    }
+
+    @Test
+    public void testRecordCreateBatchReservesOneVersionPerEntry() {
+        EntryStats stats = new EntryStats(1L, 2, 10);
+
+        long last = entryStatsService.recordCreateBatch(stats, 3, 9);
+
+        assertThat(last).isEqualTo(4);
+        assertThat(stats.getEntryCount()).isEqualTo(5);
+        assertThat(stats.getStoredBytes()).isEqualTo(19);
+    }
+
+    @Test
+    public void testRecordCreateBatchEnforcesQuotaForWholeBatch() {
+        entryConfig.setMaxEntriesPerUser(4);
+        assertThatThrownBy(() -> entryStatsService.recordCreateBatch(new EntryStats(1L, 2, 10), 3, 9))
+                .isInstanceOf(EntryQuotaExceededException.class);
+    }
+
+    @Test
+    public void testRecordDeleteDecrementsCounters() {
+        EntryStats stats = new EntryStats(1L, 2, 10);
+
+        entryStatsService.recordDelete(stats, 4);
+
+        assertThat(stats.getEntryCount()).isEqualTo(1);
+        assertThat(stats.getStoredBytes()).isEqualTo(6);
+    }
+
+    @Test
+    public void testBackfillInitializesMissingRowsFromExistingEntries() {
+        when(entryStatsRepository.findUserIdsWithoutStats(any(Limit.class))).thenReturn(List.of(1L));
+        when(entryRepository.streamResponsesByUserId(1L)).thenReturn(Stream.of(
+                new EntryResponseDTO(1L, "abc", "testuser", null),
+                new EntryResponseDTO(2L, "défg", "testuser", null)));
+        ArgumentCaptor<EntryStats> saved = ArgumentCaptor.forClass(EntryStats.class);
+        when(entryStatsRepository.save(saved.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int created = entryStatsService.backfill(100);
+
+        assertThat(created).isEqualTo(1);
+        assertThat(saved.getValue().getEntryCount()).isEqualTo(2);
+        assertThat(saved.getValue().getStoredBytes()).isEqualTo(8);
+        assertThat(saved.getValue().getListVersion()).isEqualTo(1);
+        verify(entryRepository).stampMissingChangeSeq(1L, 1L);
+    }
+
+    @Test
+    public void testWriteWithoutStatsRowIsRejectedInsteadOfCreatingIt() {
+        when(entryStatsRepository.findForUpdate(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> entryStatsService.lockForWrite(1L))
+                .isInstanceOf(UserNotFoundException.class);
+        verify(entryStatsRepository, never()).save(any(EntryStats.class));
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.mytodolist.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mytodolist.config.EntryConfig;
+import com.mytodolist.exceptions.EntryQuotaExceededException;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.User;
+import com.mytodolist.services.EntryService;
+import com.mytodolist.services.EntryWriteBehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EntryWriteBehindTest {
+
+    private final EntryService entryService = mock(EntryService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EntryConfig entryConfig = new EntryConfig();
+    private EntryWriteBehind writeBehind;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setUp() {
+        entryConfig.setWriteBehindEnabled(true);
+        entryConfig.setWriteBehindMaxGroupSize(3);
+        entryConfig.setWriteBehindMaxDelayMillis(200);
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        if (writeBehind != null) {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentCreates_CommitInOneGroup() throws Exception {
+        when(entryService.createEntryGroup(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        start();
+
+        List<Future<Entry>> results = new ArrayList<>();
+        for (String body : List.of("a", "b", "c")) {
+            results.add(callers.submit(() -> writeBehind.create(body, user(1L))));
+        }
+
+        for (Future<Entry> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isNotNull();
+        }
+        verify(entryService).createEntryGroup(anyList()); // the group filled up before the delay ran out
+        assertThat(meterRegistry.get("entries.write_behind.group.size").summary().max()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("entries.write_behind.commit").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedGroup_FallsBackToSingleCommits() throws Exception {
+        User overQuota = user(2L);
+        when(entryService.createEntryGroup(anyList())).thenThrow(new EntryQuotaExceededException(1));
+        when(entryService.createEntry(any(Entry.class), any(User.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(1) == overQuota) {
+                throw new EntryQuotaExceededException(1);
+            }
+            return invocation.getArgument(0);
+        });
+        entryConfig.setWriteBehindMaxDelayMillis(0);
+        start();
+
+        assertThat(writeBehind.create("fine", user(1L)).getEntryBody()).isEqualTo("fine");
+        assertThatThrownBy(() -> writeBehind.create("too many", overQuota))
+                .isInstanceOf(EntryQuotaExceededException.class);
+    }
+
+    @Test
+    public void testFullQueue_PushesBack() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(entryService.createEntryGroup(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        entryConfig.setWriteBehindQueueCapacity(1);
+        entryConfig.setWriteBehindMaxGroupSize(1);
+        entryConfig.setWriteBehindEnqueueTimeoutMillis(10);
+        start();
+
+        callers.submit(() -> writeBehind.create("in flight", user(1L)));
+        Thread.sleep(100); // the flusher is now stuck committing the first entry
+        callers.submit(() -> writeBehind.create("queued", user(1L)));
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> writeBehind.create("rejected", user(1L)))
+                .hasMessageContaining("try again shortly");
+        release.countDown();
+    }
+
+    @Test
+    public void testDisabled_CommitsDirectly() {
+        entryConfig.setWriteBehindEnabled(false);
+        when(entryService.createEntry(any(Entry.class), any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        start();
+
+        assertThat(writeBehind.isEnabled()).isFalse();
+        assertThat(writeBehind.create("direct", user(1L)).getEntryBody()).isEqualTo("direct");
+        verify(entryService, never()).createEntryGroup(anyList());
+    }
+
+    private void start() {
+        writeBehind = new EntryWriteBehind(entryService, entryConfig, meterRegistry);
+        writeBehind.start();
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "password");
+        user.setId(id);
+        return user;
+    }
+
+}
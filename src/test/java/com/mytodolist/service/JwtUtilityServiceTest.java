@@ -1,8 +1,10 @@
 package com.mytodolist.service;
 
 import java.time.Clock;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.mytodolist.models.User;
 import com.mytodolist.security.config.JwtConfig;
 import com.mytodolist.security.services.JwtUtilityService;
+import com.mytodolist.security.userdetails.JwtPrincipal;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 
 @ExtendWith(MockitoExtension.class)
 
@@ -37,7 +43,7 @@ class JwtUtilityServiceTest {
     @Test
     void testGenerateAndValidateToken() {
         User user = new User("testuser", "Password123");
-        String token = jwtUtilityService.generateToken(user);
+        String token = jwtUtilityService.generateToken(user, Set.of("ROLE_USER"));
         assertTrue(jwtUtilityService.validateToken(token));
         assertEquals("testuser", jwtUtilityService.getUsernameFromToken(token));
     }
@@ -45,7 +51,7 @@ class JwtUtilityServiceTest {
     @Test
     void testInvalidToken_Timeout() throws InterruptedException {
         User user = new User("testuser", "Password123");
-        String token = jwtUtilityService.generateToken(user);
+        String token = jwtUtilityService.generateToken(user, Set.of("ROLE_USER"));
         Thread.sleep(1000);
         assertTrue(!jwtUtilityService.validateToken(token));
         assertTrue(token != null && !token.isEmpty());
@@ -60,7 +66,30 @@ class JwtUtilityServiceTest {
     @Test
     void testGetExpirationFromToken() {
         User user = new User("testuser", "Password123");
-        String token = jwtUtilityService.generateToken(user);
+        String token = jwtUtilityService.generateToken(user, Set.of("ROLE_USER"));
         assertTrue(jwtUtilityService.getExpirationDateFromToken(token).after(new java.util.Date()));
     }
+
+    @Test
+    void testPrincipalFromClaims() {
+        User user = new User("testuser", "Password123");
+        user.setId(42L);
+        String token = jwtUtilityService.generateToken(user, Set.of("ROLE_USER", "ROLE_ADMIN"));
+        JwtPrincipal principal = jwtUtilityService.getPrincipalFromToken(token);
+        assertEquals(42L, principal.getUserId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), principal.getRoles());
+    }
+
+    @Test
+    void testPrincipalFromTokenWithoutClaims() {
+        // issued before the id and roles were put in the token
+        String token = Jwts.builder()
+                .subject("testuser")
+                .expiration(new java.util.Date(System.currentTimeMillis() + 1000))
+                .signWith(Keys.hmacShaKeyFor("supersecretkeysupersecretkey12345678".getBytes()))
+                .compact();
+        assertTrue(jwtUtilityService.validateToken(token));
+        assertNull(jwtUtilityService.getPrincipalFromToken(token));
+    }
 }
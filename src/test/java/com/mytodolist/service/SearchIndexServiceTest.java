@@ -0,0 +1,158 @@
+package com.mytodolist.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mytodolist.dtos.EntryResponseDTO;
+import com.mytodolist.dtos.EntrySearchResultDTO;
+import com.mytodolist.models.Entry;
+import com.mytodolist.models.SearchIndexStats;
+import com.mytodolist.models.SearchPosting;
+import com.mytodolist.models.User;
+import com.mytodolist.repositories.EntryRepository;
+import com.mytodolist.repositories.SearchIndexStatsRepository;
+import com.mytodolist.repositories.SearchPostingRepository;
+import com.mytodolist.services.EntryStatsService;
+import com.mytodolist.services.SearchIndexService;
+import com.mytodolist.services.SearchTokenizer;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchIndexServiceTest {
+
+    @Mock
+    private SearchPostingRepository postingRepository;
+    @Mock
+    private SearchIndexStatsRepository statsRepository;
+    @Mock
+    private EntryRepository entryRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EntryStatsService entryStatsService;
+    @InjectMocks
+    private SearchIndexService searchIndexService;
+
+    @Test
+    public void testTokenizeLowercasesAndDropsStopWords() {
+        assertThat(SearchTokenizer.tokenize("Buy the MILK, then buy eggs!"))
+                .containsExactly("buy", "milk", "then", "buy", "eggs");
+    }
+
+    @Test
+    public void testIndexAddsPostingsAndAdjustsStats() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        Entry entry = new Entry("milk milk eggs", user);
+        entry.setId(5L);
+        when(statsRepository.existsById(1L)).thenReturn(true);
+
+        searchIndexService.index(entry);
+
+        // written and let go at once, so a bulk delete later in the transaction leaves nothing stale behind
+        verify(entityManager, times(2)).persist(any(SearchPosting.class));
+        verify(entityManager).flush();
+        verify(entityManager, times(2)).detach(any(SearchPosting.class));
+        verify(statsRepository).adjust(1L, 1, 3);
+    }
+
+    @Test
+    public void testIndexDoesNotRebuildAnIndexBuiltWhileWaitingForTheLock() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        Entry entry = new Entry("milk milk eggs", user);
+        entry.setId(5L);
+        when(statsRepository.existsById(1L)).thenReturn(false, true); // another request built it first
+
+        searchIndexService.index(entry);
+
+        verify(entryStatsService).lockForWrite(1L);
+        verify(postingRepository, never()).deleteByUserId(1L);
+        verify(entityManager, never()).persist(any(SearchIndexStats.class));
+        verify(statsRepository).adjust(1L, 1, 3);
+    }
+
+    @Test
+    public void testIndexAllKeepsEachOwnersPostingsAndStatsApart() {
+        User first = new User("first", "password");
+        first.setId(1L);
+        User second = new User("second", "password");
+        second.setId(2L);
+        Entry milk = new Entry("milk", first);
+        milk.setId(5L);
+        Entry eggs = new Entry("eggs eggs bread", second);
+        eggs.setId(6L);
+        when(statsRepository.existsById(1L)).thenReturn(true);
+        when(statsRepository.existsById(2L)).thenReturn(true);
+        ArgumentCaptor<SearchPosting> postings = ArgumentCaptor.forClass(SearchPosting.class);
+
+        searchIndexService.indexAll(List.of(milk, eggs));
+
+        verify(entityManager, times(3)).persist(postings.capture());
+        assertThat(postings.getAllValues()).extracting(SearchPosting::getEntryId, SearchPosting::getUserId)
+                .containsExactly(tuple(5L, 1L), tuple(6L, 2L), tuple(6L, 2L));
+        verify(statsRepository).adjust(1L, 1, 1);
+        verify(statsRepository).adjust(2L, 1, 3);
+    }
+
+    @Test
+    public void testRemoveDropsPostingsAndAdjustsStats() {
+        when(postingRepository.findDocumentLength(5L)).thenReturn(List.<Object[]>of(new Object[]{1L, 3}));
+
+        searchIndexService.remove(5L);
+
+        verify(postingRepository).deleteByEntryId(5L);
+        verify(statsRepository).adjust(1L, -1, -3);
+    }
+
+    @Test
+    public void testSearchRanksByBm25() {
+        when(statsRepository.findById(1L)).thenReturn(Optional.of(new SearchIndexStats(1L, 3, 12)));
+        when(postingRepository.findByUserIdAndTermIn(eq(1L), anyCollection())).thenReturn(List.of(
+                new SearchPosting(1L, "milk", 1L, 2, 4),
+                new SearchPosting(2L, "milk", 1L, 1, 4)));
+        when(entryRepository.findResponsesByUserIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(
+                new EntryResponseDTO(2L, "milk and bread", "testuser", null),
+                new EntryResponseDTO(1L, "milk milk please", "testuser", null)));
+
+        List<EntrySearchResultDTO> results = searchIndexService.search(1L, "Milk", null);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getEntry().getId()).isEqualTo(1L);
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+    }
+
+    @Test
+    public void testSearchRejectsQueryWithoutTerms() {
+        assertThatThrownBy(() -> searchIndexService.search(1L, "  the ", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSearchRejectsLimitOutOfRange() {
+        for (int limit : new int[]{0, -1, 101}) {
+            assertThatThrownBy(() -> searchIndexService.search(1L, "milk", limit))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        verify(statsRepository, never()).findById(any());
+    }
+
+}
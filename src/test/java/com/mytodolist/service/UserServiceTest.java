@@ -7,13 +7,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.security.crypto.password.PasswordEncoder;
+
 import com.mytodolist.models.User;
 import com.mytodolist.repositories.UserRepository;
+import com.mytodolist.services.AccountDeletionService;
+import com.mytodolist.services.EntryStatsService;
+import com.mytodolist.services.SearchIndexService;
 import com.mytodolist.services.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +26,14 @@ public class UserServiceTest {
 
     @Mock
     UserRepository userRepository;
+    @Mock
+    AccountDeletionService accountDeletionService;
+    @Mock
+    EntryStatsService entryStatsService;
+    @Mock
+    SearchIndexService searchIndexService;
+    @Mock
+    PasswordEncoder passwordEncoder;
     @InjectMocks
     UserService userService;
 
@@ -28,6 +41,23 @@ public class UserServiceTest {
     public void testCreateUser() {
     }
 
+    @Test
+    public void testCreateUser_CreatesStatsAndSearchIndexRows() {
+        User newUser = new User("testuser", "password");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode("password")).thenReturn("encoded");
+        when(userRepository.save(newUser)).thenAnswer(invocation -> {
+            newUser.setId(1L);
+            return newUser;
+        });
+
+        User created = userService.createUser(newUser);
+
+        assertThat(created.getPassword()).isEqualTo("encoded");
+        verify(entryStatsService).createFor(1L);
+        verify(searchIndexService).createFor(1L);
+    }
+
     @Test
     public void testFindByUsername() {
         User mockUser = new User("testuser", "password");
@@ -60,9 +90,9 @@ public class UserServiceTest {
 
         when(userRepository.existsById(userId)).thenReturn(true);
 
-        doNothing().when(userRepository).deleteById(userId);
         userService.deleteUser(userId);
-        verify(userRepository).deleteById(userId);
+        verify(accountDeletionService).requestDeletion(userId);
+        verify(userRepository, never()).deleteById(userId);
     }
 
 }